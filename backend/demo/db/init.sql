@@ -8,44 +8,148 @@ CREATE DATABASE IF NOT EXISTS transfer_simulator
 USE transfer_simulator;
 
 -- =========================
--- 2) Create Table: transfer_simulations
+-- 2) Create Table: rate_snapshots
 -- =========================
+-- One row per exchange rate fetched from the upstream API
+CREATE TABLE IF NOT EXISTS rate_snapshots (
+  id INT UNSIGNED NOT NULL AUTO_INCREMENT,
+  base_currency CHAR(3) NOT NULL,
+  quote_currency CHAR(3) NOT NULL,
+
+  -- 1 base = ? quote
+  rate DECIMAL(26, 14) NOT NULL,
+  fetched_at TIMESTAMP(3) NOT NULL,
+
+  PRIMARY KEY (id),
+  INDEX idx_pair_fetched_at (base_currency, quote_currency, fetched_at)
+) ENGINE=InnoDB;
+
+-- =========================
+-- 3) Create Table: transfer_simulations
+-- =========================
+-- Range-partitioned by month on created_at (DATETIME, so partition bounds are plain literals).
+-- The application splits pmax into monthly partitions pYYYYMM ahead of time, and drops expired
+-- ones after copying them to transfer_simulations_archive.
 CREATE TABLE IF NOT EXISTS transfer_simulations (
   id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
-  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+  -- Corridor (ISO 4217 codes); amounts are whole units of these currencies
+  source_currency CHAR(3) NOT NULL DEFAULT 'JPY',
+  target_currency CHAR(3) NOT NULL DEFAULT 'VND',
 
   -- User inputs / stored values
-  send_amount_jpy BIGINT UNSIGNED NOT NULL,
-  receive_amount_vnd BIGINT UNSIGNED NOT NULL,
+  send_amount BIGINT UNSIGNED NOT NULL,
+  receive_amount BIGINT UNSIGNED NOT NULL,
 
-  -- Calculated fee (JPY)
-  fee_jpy INT UNSIGNED NOT NULL,
+  -- Calculated fee (source currency)
+  fee INT UNSIGNED NOT NULL,
 
-  -- Exchange rate at time of simulation (JPY -> VND)
-  rate_jpy_to_vnd DECIMAL(18, 8) NOT NULL,
+  -- Exchange rate at time of simulation (source -> target), shared through rate_snapshots.
+  -- No foreign key: the application only writes ids of recorded snapshots, and inserts skip the extra index
+  rate_snapshot_id INT UNSIGNED NOT NULL,
 
   -- Optional: how the user filled the form (for auditing/UX)
   input_mode ENUM('JPY_INPUT', 'VND_INPUT', 'BOTH') NOT NULL DEFAULT 'BOTH',
 
-  -- Optional: lightweight audit fields (no personal info)
+  -- Partitioned tables need the partitioning column in every unique key
+  PRIMARY KEY (id, created_at),
+  INDEX idx_created_at (created_at)
+) ENGINE=InnoDB
+PARTITION BY RANGE COLUMNS (created_at) (
+  PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Simulations past the retention period, compressed; same columns as transfer_simulations
+CREATE TABLE IF NOT EXISTS transfer_simulations_archive (
+  id BIGINT UNSIGNED NOT NULL,
+  created_at DATETIME NOT NULL,
+  source_currency CHAR(3) NOT NULL,
+  target_currency CHAR(3) NOT NULL,
+  send_amount BIGINT UNSIGNED NOT NULL,
+  receive_amount BIGINT UNSIGNED NOT NULL,
+  fee INT UNSIGNED NOT NULL,
+  rate_snapshot_id INT UNSIGNED NOT NULL,
+  input_mode ENUM('JPY_INPUT', 'VND_INPUT', 'BOTH') NOT NULL,
+
+  PRIMARY KEY (id),
+  INDEX idx_created_at (created_at)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+-- Lightweight audit fields (no personal info), written asynchronously in batches after the
+-- simulation is saved; best effort, so a simulation may have no audit row.
+-- Partitioned like transfer_simulations (created_at is the simulation's), and expired partitions
+-- are dropped without archiving.
+CREATE TABLE IF NOT EXISTS simulation_audit (
+  simulation_id BIGINT UNSIGNED NOT NULL,
+  created_at DATETIME NOT NULL,
   client_ip VARCHAR(45) NULL,
   user_agent VARCHAR(255) NULL,
 
-  PRIMARY KEY (id),
+  PRIMARY KEY (simulation_id, created_at)
+) ENGINE=InnoDB
+PARTITION BY RANGE COLUMNS (created_at) (
+  PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Idempotency-Key claims of POST /simulate. Not partitioned: the primary key has to make a key
+-- unique across all simulations, which a unique key of a partitioned table cannot (it must include
+-- created_at). simulation_id stays NULL while the first request is in progress; rows are purged
+-- by the application after the retention period.
+CREATE TABLE IF NOT EXISTS simulation_idempotency (
+  idempotency_key VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  request_fingerprint VARCHAR(64) NOT NULL,
+  simulation_id BIGINT UNSIGNED NULL,
+  created_at DATETIME NOT NULL,
+
+  PRIMARY KEY (idempotency_key),
   INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB;
 
 -- =========================
--- 3) (Optional) Add a simple view for latest history
+-- 4) Create Tables: simulation_daily_stats, rollup_progress
+-- =========================
+-- Daily aggregates per corridor, fee charged and input mode, maintained incrementally by the application
+CREATE TABLE IF NOT EXISTS simulation_daily_stats (
+  source_currency CHAR(3) NOT NULL,
+  target_currency CHAR(3) NOT NULL,
+  day DATE NOT NULL,
+  fee INT UNSIGNED NOT NULL,
+  input_mode ENUM('JPY_INPUT', 'VND_INPUT', 'BOTH') NOT NULL,
+
+  simulation_count BIGINT UNSIGNED NOT NULL,
+  total_send BIGINT UNSIGNED NOT NULL,
+  total_fee BIGINT UNSIGNED NOT NULL,
+  total_receive BIGINT UNSIGNED NOT NULL,
+
+  PRIMARY KEY (source_currency, target_currency, day, fee, input_mode)
+) ENGINE=InnoDB;
+
+-- High-water marks of incremental rollups (last source id already aggregated)
+CREATE TABLE IF NOT EXISTS rollup_progress (
+  name VARCHAR(64) NOT NULL,
+  last_id BIGINT UNSIGNED NOT NULL,
+
+  PRIMARY KEY (name)
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO rollup_progress (name, last_id) VALUES ('simulation_daily_stats', 0);
+
+-- =========================
+-- 5) (Optional) Add a simple view for latest history
 -- =========================
+-- Covers the retained (hot) simulations only. No ORDER BY in the view: callers order and limit,
+-- e.g. ORDER BY created_at DESC LIMIT 20, which reads idx_created_at from the newest partition.
 CREATE OR REPLACE VIEW v_public_history AS
 SELECT
-  id,
-  created_at,
-  send_amount_jpy,
-  fee_jpy,
-  rate_jpy_to_vnd,
-  receive_amount_vnd,
-  input_mode
-FROM transfer_simulations
-ORDER BY created_at DESC;
+  s.id,
+  s.created_at,
+  s.source_currency,
+  s.target_currency,
+  s.send_amount,
+  s.fee,
+  r.rate,
+  s.receive_amount,
+  s.input_mode
+FROM transfer_simulations s
+JOIN rate_snapshots r ON r.id = s.rate_snapshot_id;
@@ -0,0 +1,47 @@
+-- =========================
+-- Move the per-simulation exchange rate into rate_snapshots
+-- For databases created from an init.sql that still has transfer_simulations.rate_jpy_to_vnd.
+-- Run once, with the application stopped.
+-- =========================
+USE transfer_simulator;
+
+CREATE TABLE IF NOT EXISTS rate_snapshots (
+  id INT UNSIGNED NOT NULL AUTO_INCREMENT,
+  base_currency CHAR(3) NOT NULL,
+  quote_currency CHAR(3) NOT NULL,
+  rate DECIMAL(18, 8) NOT NULL,
+  fetched_at TIMESTAMP(3) NOT NULL,
+  PRIMARY KEY (id),
+  INDEX idx_pair_fetched_at (base_currency, quote_currency, fetched_at)
+) ENGINE=InnoDB;
+
+-- One snapshot per distinct historical rate, dated by its first use
+INSERT INTO rate_snapshots (base_currency, quote_currency, rate, fetched_at)
+SELECT 'JPY', 'VND', rate_jpy_to_vnd, MIN(created_at)
+FROM transfer_simulations
+GROUP BY rate_jpy_to_vnd
+ORDER BY MIN(created_at);
+
+ALTER TABLE transfer_simulations ADD COLUMN rate_snapshot_id INT UNSIGNED NULL AFTER fee_jpy;
+
+UPDATE transfer_simulations s
+JOIN rate_snapshots r
+  ON r.base_currency = 'JPY' AND r.quote_currency = 'VND' AND r.rate = s.rate_jpy_to_vnd
+SET s.rate_snapshot_id = r.id;
+
+ALTER TABLE transfer_simulations
+  MODIFY rate_snapshot_id INT UNSIGNED NOT NULL,
+  DROP COLUMN rate_jpy_to_vnd;
+
+CREATE OR REPLACE VIEW v_public_history AS
+SELECT
+  s.id,
+  s.created_at,
+  s.send_amount_jpy,
+  s.fee_jpy,
+  r.rate AS rate_jpy_to_vnd,
+  s.receive_amount_vnd,
+  s.input_mode
+FROM transfer_simulations s
+JOIN rate_snapshots r ON r.id = s.rate_snapshot_id
+ORDER BY s.created_at DESC;
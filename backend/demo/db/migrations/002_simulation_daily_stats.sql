@@ -0,0 +1,26 @@
+-- =========================
+-- Daily simulation stats rollup
+-- The high-water mark starts at 0, so the running application rolls up existing simulations
+-- on its own, one chunk at a time. To rebuild the rollup from scratch instead, run:
+--   java -jar demo.jar --simulation.stats.backfill=true --spring.main.web-application-type=none
+-- =========================
+USE transfer_simulator;
+
+CREATE TABLE IF NOT EXISTS simulation_daily_stats (
+  day DATE NOT NULL,
+  fee_jpy INT UNSIGNED NOT NULL,
+  input_mode ENUM('JPY_INPUT', 'VND_INPUT', 'BOTH') NOT NULL,
+  simulation_count BIGINT UNSIGNED NOT NULL,
+  total_send_jpy BIGINT UNSIGNED NOT NULL,
+  total_fee_jpy BIGINT UNSIGNED NOT NULL,
+  total_receive_vnd BIGINT UNSIGNED NOT NULL,
+  PRIMARY KEY (day, fee_jpy, input_mode)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS rollup_progress (
+  name VARCHAR(64) NOT NULL,
+  last_id BIGINT UNSIGNED NOT NULL,
+  PRIMARY KEY (name)
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO rollup_progress (name, last_id) VALUES ('simulation_daily_stats', 0);
@@ -0,0 +1,44 @@
+-- =========================
+-- Monthly range partitioning of transfer_simulations, plus the archive table
+-- Rebuilds transfer_simulations; run once, with the application stopped.
+-- Every row initially lands in pmax. On startup the application splits pmax into monthly
+-- partitions: everything before the current month goes into the previous month's partition,
+-- which the retention job archives and drops once it is past the retention period.
+-- =========================
+USE transfer_simulator;
+
+ALTER TABLE transfer_simulations
+  MODIFY created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE transfer_simulations
+  PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+  );
+
+CREATE TABLE IF NOT EXISTS transfer_simulations_archive (
+  id BIGINT UNSIGNED NOT NULL,
+  created_at DATETIME NOT NULL,
+  send_amount_jpy BIGINT UNSIGNED NOT NULL,
+  receive_amount_vnd BIGINT UNSIGNED NOT NULL,
+  fee_jpy INT UNSIGNED NOT NULL,
+  rate_snapshot_id INT UNSIGNED NOT NULL,
+  input_mode ENUM('JPY_INPUT', 'VND_INPUT', 'BOTH') NOT NULL,
+  client_ip VARCHAR(45) NULL,
+  user_agent VARCHAR(255) NULL,
+  PRIMARY KEY (id),
+  INDEX idx_created_at (created_at)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+CREATE OR REPLACE VIEW v_public_history AS
+SELECT
+  s.id,
+  s.created_at,
+  s.send_amount_jpy,
+  s.fee_jpy,
+  r.rate AS rate_jpy_to_vnd,
+  s.receive_amount_vnd,
+  s.input_mode
+FROM transfer_simulations s
+JOIN rate_snapshots r ON r.id = s.rate_snapshot_id;
@@ -0,0 +1,30 @@
+-- =========================
+-- Move client_ip / user_agent out of transfer_simulations into simulation_audit
+-- Run once, with the application stopped. Audit fields of archived simulations are discarded:
+-- they are past the retention period that now applies to audit rows.
+-- =========================
+USE transfer_simulator;
+
+CREATE TABLE IF NOT EXISTS simulation_audit (
+  simulation_id BIGINT UNSIGNED NOT NULL,
+  created_at DATETIME NOT NULL,
+  client_ip VARCHAR(45) NULL,
+  user_agent VARCHAR(255) NULL,
+  PRIMARY KEY (simulation_id, created_at)
+) ENGINE=InnoDB
+PARTITION BY RANGE COLUMNS (created_at) (
+  PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+INSERT IGNORE INTO simulation_audit (simulation_id, created_at, client_ip, user_agent)
+SELECT id, created_at, client_ip, user_agent
+FROM transfer_simulations
+WHERE client_ip IS NOT NULL OR user_agent IS NOT NULL;
+
+ALTER TABLE transfer_simulations
+  DROP COLUMN client_ip,
+  DROP COLUMN user_agent;
+
+ALTER TABLE transfer_simulations_archive
+  DROP COLUMN client_ip,
+  DROP COLUMN user_agent;
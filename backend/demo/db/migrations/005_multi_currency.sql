@@ -0,0 +1,54 @@
+-- =========================
+-- Multi-currency corridors: record the currency pair of each simulation and drop the JPY/VND
+-- suffixes from the amount columns. Existing rows are JPY -> VND.
+-- Run once, with the application stopped. The daily stats rollup keeps its rows, including days
+-- whose partitions were already archived or dropped: they become JPY -> VND, the corridor joins
+-- the key, and the rollup continues from its high-water mark.
+-- =========================
+USE transfer_simulator;
+
+ALTER TABLE transfer_simulations
+  ADD COLUMN source_currency CHAR(3) NOT NULL DEFAULT 'JPY' AFTER created_at,
+  ADD COLUMN target_currency CHAR(3) NOT NULL DEFAULT 'VND' AFTER source_currency,
+  RENAME COLUMN send_amount_jpy TO send_amount,
+  RENAME COLUMN receive_amount_vnd TO receive_amount,
+  RENAME COLUMN fee_jpy TO fee;
+
+ALTER TABLE transfer_simulations_archive
+  ADD COLUMN source_currency CHAR(3) NOT NULL DEFAULT 'JPY' AFTER created_at,
+  ADD COLUMN target_currency CHAR(3) NOT NULL DEFAULT 'VND' AFTER source_currency,
+  RENAME COLUMN send_amount_jpy TO send_amount,
+  RENAME COLUMN receive_amount_vnd TO receive_amount,
+  RENAME COLUMN fee_jpy TO fee;
+
+ALTER TABLE transfer_simulations_archive
+  ALTER COLUMN source_currency DROP DEFAULT,
+  ALTER COLUMN target_currency DROP DEFAULT;
+
+ALTER TABLE simulation_daily_stats
+  ADD COLUMN source_currency CHAR(3) NOT NULL DEFAULT 'JPY' FIRST,
+  ADD COLUMN target_currency CHAR(3) NOT NULL DEFAULT 'VND' AFTER source_currency,
+  RENAME COLUMN fee_jpy TO fee,
+  RENAME COLUMN total_send_jpy TO total_send,
+  RENAME COLUMN total_fee_jpy TO total_fee,
+  RENAME COLUMN total_receive_vnd TO total_receive;
+
+ALTER TABLE simulation_daily_stats
+  ALTER COLUMN source_currency DROP DEFAULT,
+  ALTER COLUMN target_currency DROP DEFAULT,
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (source_currency, target_currency, day, fee, input_mode);
+
+CREATE OR REPLACE VIEW v_public_history AS
+SELECT
+  s.id,
+  s.created_at,
+  s.source_currency,
+  s.target_currency,
+  s.send_amount,
+  s.fee,
+  r.rate,
+  s.receive_amount,
+  s.input_mode
+FROM transfer_simulations s
+JOIN rate_snapshots r ON r.id = s.rate_snapshot_id;
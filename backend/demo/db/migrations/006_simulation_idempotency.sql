@@ -0,0 +1,15 @@
+-- =========================
+-- Idempotency-Key claims of POST /simulate
+-- Can be applied while the application is running; until then, requests with an
+-- Idempotency-Key fail and requests without one are unaffected.
+-- =========================
+USE transfer_simulator;
+
+CREATE TABLE IF NOT EXISTS simulation_idempotency (
+  idempotency_key VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  request_fingerprint VARCHAR(64) NOT NULL,
+  simulation_id BIGINT UNSIGNED NULL,
+  created_at DATETIME NOT NULL,
+  PRIMARY KEY (idempotency_key),
+  INDEX idx_created_at (created_at)
+) ENGINE=InnoDB;
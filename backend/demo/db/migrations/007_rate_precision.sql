@@ -0,0 +1,10 @@
+-- =========================
+-- Store rates at the precision they are quoted with: up to 12 significant digits and 14 decimal
+-- places, so small derived rates such as VND -> JPY keep their precision when recorded.
+-- Apply before deploying the application version that writes them. Changing a DECIMAL column
+-- copies the table and blocks inserts meanwhile, so run it with the application stopped.
+-- =========================
+USE transfer_simulator;
+
+ALTER TABLE rate_snapshots
+  MODIFY COLUMN rate DECIMAL(26, 14) NOT NULL;
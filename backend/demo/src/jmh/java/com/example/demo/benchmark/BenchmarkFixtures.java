@@ -0,0 +1,44 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.client.ExchangeRateClient;
+import com.example.demo.service.CurrencyCode;
+import com.example.demo.service.ExchangeRateService;
+import com.example.demo.service.FeeCalculatorService;
+import com.example.demo.service.RateMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Shared, Spring-free setup for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    static final BigDecimal JPY_TO_VND_RATE = new BigDecimal("174.35000000");
+
+    static final String DEFAULT_FEE_TIERS = "10000:100,50000:400,100000:700,unlimited:1000";
+
+    private BenchmarkFixtures() {}
+
+    static FeeCalculatorService feeCalculatorService() {
+        return new FeeCalculatorService(100, DEFAULT_FEE_TIERS);
+    }
+
+    /**
+     * Exchange rate service that always answers from a fixed JPY rate matrix, never from the network
+     */
+    static ExchangeRateService stubExchangeRateService() {
+        RateMatrix matrix = RateMatrix.of(CurrencyCode.JPY, Map.of("VND", JPY_TO_VND_RATE), Instant.now());
+        ExchangeRateClient offline = base -> {
+            throw new UnsupportedOperationException("Benchmarks never call the exchange rate API");
+        };
+        return new ExchangeRateService(offline, null, new SimpleMeterRegistry(), "JPY", "JPY:VND", 5, 30_000) {
+            @Override
+            public RateMatrix getRateMatrix() {
+                return matrix;
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.FixedPoint;
+import com.example.demo.service.RateSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * JPY → VND conversion: the original BigDecimal arithmetic against the fixed-point engine
+ * now used by the JPY_INPUT quote path.
+ */
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    @Param({"4900", "99300", "9999000"})
+    public long netAmountJpy;
+
+    private final BigDecimal rate = BenchmarkFixtures.JPY_TO_VND_RATE;
+    private final long scaledRate = FixedPoint.toScaled(rate, RateSnapshot.MIN_SCALE);
+
+    @Benchmark
+    public long fixedPointJpyToVnd() {
+        return FixedPoint.multiplyDown(netAmountJpy, scaledRate, RateSnapshot.MIN_SCALE);
+    }
+
+    @Benchmark
+    public long bigDecimalJpyToVnd() {
+        return BigDecimal.valueOf(netAmountJpy)
+                .multiply(rate)
+                .setScale(0, RoundingMode.DOWN)
+                .longValue();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.FeeCalculatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Fee lookup and its inverse, one amount per tier.
+ */
+@State(Scope.Benchmark)
+public class FeeCalculatorBenchmark {
+
+    @Param({"5000", "30000", "75000", "500000"})
+    public long amountJpy;
+
+    private FeeCalculatorService feeCalculatorService;
+
+    @Setup
+    public void setUp() {
+        feeCalculatorService = BenchmarkFixtures.feeCalculatorService();
+    }
+
+    @Benchmark
+    public int calculateFee() {
+        return feeCalculatorService.calculateFee(amountJpy);
+    }
+
+    @Benchmark
+    public long calculateGrossAmount() {
+        return feeCalculatorService.calculateGrossAmount(amountJpy);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.CalculationPreviewResponse;
+import com.example.demo.dto.SimulationRequest;
+import com.example.demo.service.TransferSimulationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Both branches of previewCalculation against a stubbed exchange rate, so no network is involved.
+ */
+@State(Scope.Benchmark)
+public class PreviewCalculationBenchmark {
+
+    private TransferSimulationService transferService;
+    private SimulationRequest jpyInput;
+    private SimulationRequest vndInput;
+
+    @Setup
+    public void setUp() {
+        // Repository, batch writer, lag guard, audit writer, concurrency limit, idempotency keys and transactions
+        // are only used when saving or reading history, which is not measured here
+        transferService = new TransferSimulationService(null,
+                BenchmarkFixtures.stubExchangeRateService(),
+                BenchmarkFixtures.feeCalculatorService(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                new SimpleMeterRegistry());
+
+        jpyInput = new SimulationRequest();
+        jpyInput.setInputMode(SimulationRequest.InputMode.JPY_INPUT);
+        jpyInput.setSendAmount(50_000L);
+
+        vndInput = new SimulationRequest();
+        vndInput.setInputMode(SimulationRequest.InputMode.VND_INPUT);
+        vndInput.setReceiveAmount(10_000_000L);
+    }
+
+    @Benchmark
+    public CalculationPreviewResponse jpyInput() {
+        return transferService.previewCalculation(jpyInput);
+    }
+
+    @Benchmark
+    public CalculationPreviewResponse vndInput() {
+        return transferService.previewCalculation(vndInput);
+    }
+}
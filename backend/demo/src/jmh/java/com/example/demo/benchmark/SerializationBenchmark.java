@@ -0,0 +1,44 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.AppConfig;
+import com.example.demo.dto.CalculationPreviewResponse;
+import com.example.demo.dto.SimulationResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * JSON serialization of the quote and history responses with the application's SNAKE_CASE mapper.
+ */
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SimulationResponse simulationResponse;
+    private CalculationPreviewResponse previewResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new AppConfig().objectMapper();
+        simulationResponse = new SimulationResponse(1L, LocalDateTime.now(), "JPY", "VND", 50_000L, 8_647_760L, 400,
+                BenchmarkFixtures.JPY_TO_VND_RATE, "JPY_INPUT");
+        previewResponse = new CalculationPreviewResponse("JPY", "VND", 50_000L, 8_647_760L, 400,
+                BenchmarkFixtures.JPY_TO_VND_RATE, 49_600L, Instant.now(), false);
+    }
+
+    @Benchmark
+    public byte[] simulationResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(simulationResponse);
+    }
+
+    @Benchmark
+    public byte[] calculationPreviewResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(previewResponse);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log-normal response time, described by its median and 99th percentile.
+ * Most samples sit near the median with a long right tail, like a real HTTP API.
+ */
+record LatencyDistribution(double medianMs, double p99Ms) {
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    LatencyDistribution {
+        if (medianMs < 0 || p99Ms < 0) {
+            throw new IllegalArgumentException("Latencies must not be negative");
+        }
+    }
+
+    /**
+     * Draw one delay; constant when p99 does not exceed the median
+     */
+    long sampleMillis() {
+        if (medianMs == 0 || p99Ms <= medianMs) {
+            return Math.round(medianMs);
+        }
+        double sigma = Math.log(p99Ms / medianMs) / Z_99;
+        return Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
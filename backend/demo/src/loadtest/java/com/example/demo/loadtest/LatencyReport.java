@@ -0,0 +1,59 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.loadtest.LoadGenerator.Endpoint;
+import com.example.demo.loadtest.LoadGenerator.EndpointStats;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency summary per endpoint, plus full HdrHistogram percentile distributions (.hgrm files)
+ * that can be compared between runs with the HdrHistogram plotter.
+ */
+final class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private LatencyReport() {}
+
+    static void print(PrintStream out, Map<Endpoint, EndpointStats> stats, Duration duration) {
+        out.printf(Locale.ROOT, "%-10s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            Histogram latencies = entry.getValue().latencies();
+            out.printf(Locale.ROOT, "%-10s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(Locale.ROOT),
+                    latencies.getTotalCount(),
+                    entry.getValue().errors().sum(),
+                    latencies.getTotalCount() / (duration.toMillis() / 1000.0),
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        }
+    }
+
+    /**
+     * Write one {@code <endpoint>.hgrm} file per endpoint, in milliseconds
+     */
+    static void write(Path directory, Map<Endpoint, EndpointStats> stats) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().latencies().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
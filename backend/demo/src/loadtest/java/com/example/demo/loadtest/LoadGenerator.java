@@ -0,0 +1,150 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for a mix of /preview, /simulate and /history requests.
+ *
+ * Requests start on a fixed schedule at the target rate, each on its own virtual thread, whether or
+ * not earlier requests have finished. Latency is measured from the scheduled start rather than the
+ * actual send, so a stalled server shows up as queueing delay instead of silently lowering the
+ * request rate (coordinated omission).
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Distinct simulated clients, so per-client state (read-your-writes routing) behaves as in production
+    private static final int CLIENTS = 1000;
+
+    enum Endpoint { PREVIEW, SIMULATE, HISTORY }
+
+    /**
+     * Latencies and failures (transport errors and HTTP status 400 or above) of one endpoint
+     */
+    record EndpointStats(Histogram latencies, LongAdder errors) {
+
+        EndpointStats() {
+            this(new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3), new LongAdder());
+        }
+    }
+
+    private final URI baseUri;
+    private final int requestsPerSecond;
+    private final Endpoint[] schedule; // endpoints repeated by weight, picked at random
+    private final HttpClient httpClient;
+
+    LoadGenerator(URI baseUri, int requestsPerSecond, Map<Endpoint, Integer> mix) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Request rate must be positive");
+        }
+        this.baseUri = baseUri;
+        this.requestsPerSecond = requestsPerSecond;
+        this.schedule = mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Endpoint[]::new);
+        if (schedule.length == 0) {
+            throw new IllegalArgumentException("The traffic mix needs at least one endpoint with a positive weight");
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Generate load for the given duration, then wait for in-flight requests
+     * @return Fresh statistics per endpoint in the mix
+     */
+    Map<Endpoint, EndpointStats> run(Duration duration) {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : schedule) {
+            stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+        }
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduledStart = start + i * intervalNanos;
+                if (scheduledStart >= end) {
+                    break;
+                }
+                long wait = scheduledStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                executor.execute(() -> send(endpoint, scheduledStart, stats.get(endpoint)));
+            }
+        }
+        return stats;
+    }
+
+    private void send(Endpoint endpoint, long scheduledStart, EndpointStats stats) {
+        try {
+            HttpResponse<Void> response = httpClient.send(request(endpoint), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                stats.errors().increment();
+            }
+        } catch (IOException e) {
+            stats.errors().increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.errors().increment();
+        } finally {
+            long latency = System.nanoTime() - scheduledStart;
+            stats.latencies().recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(REQUEST_TIMEOUT)
+                .header("X-Forwarded-For", "10.0." + random.nextInt(CLIENTS / 250) + "." + random.nextInt(250))
+                .header("User-Agent", "transfer-simulator-loadtest");
+        return switch (endpoint) {
+            case PREVIEW -> builder.uri(baseUri.resolve("/api/transfer/preview"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(randomQuoteRequest(random)))
+                    .build();
+            case SIMULATE -> builder.uri(baseUri.resolve("/api/transfer/simulate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(randomQuoteRequest(random)))
+                    .build();
+            case HISTORY -> builder.uri(baseUri.resolve("/api/transfer/history?size=20"))
+                    .GET()
+                    .build();
+        };
+    }
+
+    /**
+     * Quote request spread across the fee tiers; one in four starts from the VND amount
+     */
+    private static String randomQuoteRequest(ThreadLocalRandom random) {
+        if (random.nextInt(4) == 0) {
+            return "{\"input_mode\":\"VND_INPUT\",\"receive_amount\":" + random.nextLong(50_000, 30_000_000) + "}";
+        }
+        return "{\"input_mode\":\"JPY_INPUT\",\"send_amount\":" + random.nextLong(1_000, 200_000) + "}";
+    }
+}
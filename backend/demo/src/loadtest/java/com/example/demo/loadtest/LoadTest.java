@@ -0,0 +1,165 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.loadtest.LoadGenerator.Endpoint;
+import com.example.demo.loadtest.LoadGenerator.EndpointStats;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline load test: starts the stub exchange rate API and the application in this JVM (the
+ * application still needs its MySQL database), applies the request mix at a fixed rate, and prints
+ * a latency report. Run with {@code ./gradlew loadTest --args="--rate=200 --duration=60s"}.
+ *
+ * Options (defaults in parentheses):
+ * <ul>
+ *   <li>{@code --rate} requests per second (100)</li>
+ *   <li>{@code --duration} measured run (60s); {@code --warmup} unmeasured run before it (10s)</li>
+ *   <li>{@code --mix} endpoint weights (preview=70,simulate=20,history=10)</li>
+ *   <li>{@code --stub-median-ms}, {@code --stub-p99-ms} stub latency distribution (50, 250)</li>
+ *   <li>{@code --stub-error-rate} fraction of stub responses that are errors (0)</li>
+ *   <li>{@code --stub-port} stub port (0 = any free port)</li>
+ *   <li>{@code --target} base URL of an application that is already running (pointed at the stub
+ *       with {@code --stub-port}); when set, no application is started here</li>
+ *   <li>{@code --report-dir} where .hgrm files are written (build/loadtest)</li>
+ *   <li>{@code --in-memory-db} run the application on an in-memory H2 database instead of MySQL
+ *       (false). Only the JPA tables exist there, which is enough for {@code preview}; the
+ *       background jobs log failed statements.</li>
+ * </ul>
+ * Any other {@code --name=value} is passed to the application, e.g.
+ * {@code --exchange.rate.refresh-interval-ms=1000} or {@code --simulation.write-behind.enabled=true}.
+ */
+public final class LoadTest {
+
+    private static final String APP_PROPERTY_PREFIX = "--";
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("rate", "100");
+        options.put("duration", "60s");
+        options.put("warmup", "10s");
+        options.put("mix", "preview=70,simulate=20,history=10");
+        options.put("stub-median-ms", "50");
+        options.put("stub-p99-ms", "250");
+        options.put("stub-error-rate", "0");
+        options.put("stub-port", "0");
+        options.put("target", "");
+        options.put("report-dir", "build/loadtest");
+        options.put("in-memory-db", "false");
+
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        appProperties.put("server.port", "0");
+        appProperties.put("exchange.api.key", "loadtest");
+        appProperties.put("spring.jpa.show-sql", "false");
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith(APP_PROPERTY_PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(APP_PROPERTY_PREFIX.length(), separator);
+            String value = arg.substring(separator + 1);
+            (options.containsKey(name) ? options : appProperties).put(name, value);
+        }
+        if (Boolean.parseBoolean(options.get("in-memory-db"))) {
+            appProperties.putIfAbsent("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+            appProperties.putIfAbsent("spring.datasource.driver-class-name", "org.h2.Driver");
+            appProperties.putIfAbsent("spring.datasource.username", "sa");
+            appProperties.putIfAbsent("spring.datasource.password", "");
+            appProperties.putIfAbsent("spring.jpa.hibernate.ddl-auto", "create-drop");
+            appProperties.putIfAbsent("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        }
+
+        LatencyDistribution stubLatency = new LatencyDistribution(
+                Double.parseDouble(options.get("stub-median-ms")), Double.parseDouble(options.get("stub-p99-ms")));
+        try (StubExchangeRateServer stub = new StubExchangeRateServer(Integer.parseInt(options.get("stub-port")),
+                stubLatency, Double.parseDouble(options.get("stub-error-rate")))) {
+            stub.start();
+            System.out.println("Stub exchange rate API: " + stub.baseUrl());
+
+            ConfigurableApplicationContext app = null;
+            URI target;
+            if (options.get("target").isBlank()) {
+                appProperties.put("exchange.api.base-url", stub.baseUrl());
+                app = startApplication(appProperties);
+                target = URI.create("http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort());
+            } else {
+                target = URI.create(options.get("target"));
+            }
+
+            try {
+                LoadGenerator generator = new LoadGenerator(target, Integer.parseInt(options.get("rate")),
+                        parseMix(options.get("mix")));
+                Duration warmup = parseDuration(options.get("warmup"));
+                Duration duration = parseDuration(options.get("duration"));
+
+                System.out.printf("Warming up %s for %s%n", target, warmup);
+                generator.run(warmup);
+                System.out.printf("Measuring %s req/s for %s%n", options.get("rate"), duration);
+                Map<Endpoint, EndpointStats> stats = generator.run(duration);
+
+                System.out.println();
+                LatencyReport.print(System.out, stats, duration);
+                System.out.printf("%nStub served %d requests (%d injected errors)%n",
+                        stub.getRequests(), stub.getInjectedErrors());
+                Path reportDir = Path.of(options.get("report-dir"));
+                LatencyReport.write(reportDir, stats);
+                System.out.println("Latency distributions written to " + reportDir.toAbsolutePath());
+            } finally {
+                if (app != null) {
+                    SpringApplication.exit(app);
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(Map<String, String> properties) {
+        String[] args = properties.entrySet().stream()
+                .map(property -> APP_PROPERTY_PREFIX + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return SpringApplication.run(DemoApplication.class, args);
+    }
+
+    /**
+     * "preview=70,simulate=20,history=10" to endpoint weights
+     */
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            weights.put(Endpoint.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * "90s", "5m" or "500ms"
+     */
+    private static Duration parseDuration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        throw new IllegalArgumentException("Invalid duration: " + value);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline stand-in for exchangerate-api.com, so load tests never spend API quota.
+ * Serves {@code GET /v6/{key}/latest/{base}} in the real response format, with rates derived
+ * from a fixed USD table. Every response is delayed by a sample of the latency distribution,
+ * and a configurable fraction of requests answers with an error result instead of a rate.
+ */
+final class StubExchangeRateServer implements AutoCloseable {
+
+    // Units of each currency per 1 USD
+    private static final Map<String, Double> USD_RATES = Map.of(
+            "USD", 1.0,
+            "JPY", 150.0,
+            "VND", 26_150.0,
+            "PHP", 57.5,
+            "IDR", 16_250.0,
+            "EUR", 0.92);
+
+    private final HttpServer server;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    StubExchangeRateServer(int port, LatencyDistribution latency, double errorRate) throws IOException {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1");
+        }
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/v6/", this::handle);
+        // Delayed responses park a virtual thread each, so slow upstream settings need no pool sizing
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    void start() {
+        server.start();
+    }
+
+    /**
+     * Value for the application's {@code exchange.api.base-url}
+     */
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v6";
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            sleep(latency.sampleMillis());
+
+            // "", "v6", key, "latest", base
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            if (path.length != 5 || !"latest".equals(path[3])) {
+                respond(exchange, 404, error("unsupported-endpoint"));
+                return;
+            }
+            Double base = USD_RATES.get(path[4]);
+            if (base == null) {
+                respond(exchange, 404, error("unsupported-code"));
+                return;
+            }
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.increment();
+                respond(exchange, 200, error("quota-reached"));
+                return;
+            }
+
+            StringBuilder json = new StringBuilder("{\"result\":\"success\",\"base_code\":\"")
+                    .append(path[4]).append("\",\"conversion_rates\":{");
+            String separator = "";
+            for (Map.Entry<String, Double> rate : USD_RATES.entrySet()) {
+                json.append(separator).append(String.format(Locale.ROOT, "\"%s\":%.8f",
+                        rate.getKey(), rate.getValue() / base));
+                separator = ",";
+            }
+            respond(exchange, 200, json.append("}}").toString());
+        }
+    }
+
+    private static String error(String type) {
+        return "{\"result\":\"error\",\"error-type\":\"" + type + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global limit on concurrent /simulate requests that follows the observed save latency.
+ *
+ * Save latencies are averaged over short windows and compared with the no-load latency, the
+ * lowest window average seen (allowed to drift up slowly, so a lasting change is relearned).
+ * While the average stays within {@code latency-tolerance} times the no-load latency, the limit
+ * grows with its square root, but only if requests actually used it. Beyond that it shrinks in
+ * proportion to the excess latency. Every step is smoothed, so one slow window only nudges the
+ * limit. Excess requests are rejected up front instead of queueing on the database and slowing
+ * everyone down.
+ */
+@Component
+public class AdaptiveConcurrencyLimit {
+
+    // Per window, the no-load latency may rise by this factor towards the observed average
+    private static final double NO_LOAD_DRIFT = 1.001;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Samples of the current window
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong windowStartNanos = new AtomicLong(System.nanoTime());
+
+    // Only updated by the caller that closes a window; the window start CAS orders successive updates
+    private double estimatedLimit;
+    private double noLoadLatencyNanos;
+
+    public AdaptiveConcurrencyLimit(@Value("${admission.simulate.initial-limit:20}") int initialLimit,
+                                    @Value("${admission.simulate.min-limit:2}") int minLimit,
+                                    @Value("${admission.simulate.max-limit:200}") int maxLimit,
+                                    @Value("${admission.simulate.window-ms:250}") long windowMs,
+                                    @Value("${admission.simulate.latency-tolerance:2.0}") double latencyTolerance,
+                                    MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (latencyTolerance < 1) {
+            throw new IllegalArgumentException("Latency tolerance must be at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.latencyTolerance = latencyTolerance;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+
+        Gauge.builder("admission.simulate.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current concurrency limit of /simulate")
+                .register(meterRegistry);
+        Gauge.builder("admission.simulate.in_flight", inFlight, AtomicInteger::get)
+                .description("/simulate requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if admitted; the caller must then call {@link #release()}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Report how long one save took, including failed and timed-out saves
+     */
+    public void recordLatency(long nanos) {
+        latencySum.add(nanos);
+        latencyCount.increment();
+
+        long now = System.nanoTime();
+        long start = windowStartNanos.get();
+        if (now - start < windowNanos || !windowStartNanos.compareAndSet(start, now)) {
+            return;
+        }
+        long count = latencyCount.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (count > 0) {
+            update((double) sum / count, peak);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private void update(double averageNanos, int peak) {
+        noLoadLatencyNanos = noLoadLatencyNanos == 0
+                ? averageNanos
+                : Math.min(averageNanos, noLoadLatencyNanos * NO_LOAD_DRIFT);
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, latencyTolerance * noLoadLatencyNanos / averageNanos));
+        double target = estimatedLimit * gradient;
+        if (gradient == 1.0 && peak >= estimatedLimit / 2) {
+            // Healthy and in use: leave headroom to discover whether more concurrency helps
+            target += Math.sqrt(estimatedLimit);
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                (1 - SMOOTHING) * estimatedLimit + SMOOTHING * target));
+        limit = (int) estimatedLimit;
+    }
+}
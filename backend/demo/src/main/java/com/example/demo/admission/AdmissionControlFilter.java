@@ -0,0 +1,130 @@
+package com.example.demo.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the quote endpoints, applied before a request reaches a controller.
+ * Each client address has its own token bucket for /preview (including /preview/batch) and for
+ * /simulate. Admitted /simulate requests must also fit under the adaptive concurrency limit.
+ * A rejected request costs no database or upstream work and gets 429 with Retry-After.
+ */
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true")
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String PREVIEW_PATH = "/api/transfer/preview";
+    private static final String SIMULATE_PATH = "/api/transfer/simulate";
+
+    private final ClientRateLimiter previewRateLimiter;
+    private final ClientRateLimiter simulateRateLimiter;
+    private final AdaptiveConcurrencyLimit simulateConcurrency;
+    private final ObjectMapper objectMapper;
+    private final Counter rateLimited;
+    private final Counter concurrencyLimited;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimit simulateConcurrency,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${admission.preview.requests-per-second:20}") double previewRate,
+                                  @Value("${admission.preview.burst:40}") int previewBurst,
+                                  @Value("${admission.simulate.requests-per-second:5}") double simulateRate,
+                                  @Value("${admission.simulate.burst:10}") int simulateBurst,
+                                  @Value("${admission.max-clients:100000}") int maxClients) {
+        this.previewRateLimiter = new ClientRateLimiter(previewRate, previewBurst, maxClients);
+        this.simulateRateLimiter = new ClientRateLimiter(simulateRate, simulateBurst, maxClients);
+        this.simulateConcurrency = simulateConcurrency;
+        this.objectMapper = objectMapper;
+
+        this.rateLimited = Counter.builder("admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "rate_limit")
+                .register(meterRegistry);
+        this.concurrencyLimited = Counter.builder("admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+        Gauge.builder("admission.clients", previewRateLimiter, ClientRateLimiter::getTrackedClients)
+                .description("Clients with a token bucket")
+                .tag("endpoint", "preview")
+                .register(meterRegistry);
+        Gauge.builder("admission.clients", simulateRateLimiter, ClientRateLimiter::getTrackedClients)
+                .description("Clients with a token bucket")
+                .tag("endpoint", "simulate")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        return !path.equals(SIMULATE_PATH) && !path.startsWith(PREVIEW_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean simulate = path(request).equals(SIMULATE_PATH);
+        ClientRateLimiter rateLimiter = simulate ? simulateRateLimiter : previewRateLimiter;
+
+        long waitNanos = rateLimiter.tryAcquire(ClientIp.resolve(request));
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(response, waitNanos, "Too many requests. Please slow down.");
+            return;
+        }
+        if (!simulate) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!simulateConcurrency.tryAcquire()) {
+            concurrencyLimited.increment();
+            reject(response, TimeUnit.SECONDS.toNanos(1), "Too many simulations in progress. Please try again shortly.");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            simulateConcurrency.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        // Same shape as the GlobalExceptionHandler error responses
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "timestamp", LocalDateTime.now().toString(),
+                "status", HttpStatus.TOO_MANY_REQUESTS.value(),
+                "error", "Too Many Requests",
+                "message", message
+        ));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
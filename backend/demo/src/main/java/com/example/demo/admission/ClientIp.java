@@ -0,0 +1,18 @@
+package com.example.demo.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Client address of a request, as used for rate limiting, read-your-writes routing and the audit log.
+ * X-Forwarded-For is honoured only when the connection comes from a trusted proxy: Tomcat's RemoteIpValve
+ * (server.forward-headers-strategy=native) then replaces the remote address with the right-most entry not
+ * added by a proxy in server.tomcat.remoteip.internal-proxies. A header sent directly by a client is ignored.
+ */
+public final class ClientIp {
+
+    private ClientIp() {}
+
+    public static String resolve(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
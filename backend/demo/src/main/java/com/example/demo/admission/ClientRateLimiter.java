@@ -0,0 +1,69 @@
+package com.example.demo.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets in a bounded map.
+ * Full buckets are swept once the map reaches its capacity, at most once per sweep interval.
+ * Clients that still do not fit share one overflow bucket, so a flood of distinct addresses
+ * neither grows the map nor escapes the limit.
+ */
+final class ClientRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxClients;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow = new TokenBucket(System.nanoTime());
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * @param requestsPerSecond Sustained rate allowed per client
+     * @param burst             Requests a client may make at once after being idle
+     * @param maxClients        Clients tracked individually
+     */
+    ClientRateLimiter(double requestsPerSecond, int burst, int maxClients) {
+        if (requestsPerSecond <= 0 || burst < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Rate, burst and client capacity must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = burst * intervalNanos;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * @return 0 if the request is admitted, otherwise nanoseconds until the client may retry
+     */
+    long tryAcquire(String client) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                sweep(now);
+            }
+            // The size check is not atomic with the insert, so the map may briefly exceed its capacity
+            // by the number of concurrent new clients
+            bucket = buckets.size() < maxClients
+                    ? buckets.computeIfAbsent(client, c -> new TokenBucket(now))
+                    : overflow;
+        }
+        return bucket.tryAcquire(now, intervalNanos, burstToleranceNanos);
+    }
+
+    int getTrackedClients() {
+        return buckets.size();
+    }
+
+    private void sweep(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of one client, kept as a single "theoretical arrival time" (the generic cell rate
+ * algorithm). Each admitted request pushes that time one refill interval further; a request is
+ * admitted while it stays within the burst tolerance of now. This behaves exactly like a bucket
+ * of {@code burst} tokens refilled one per interval, but the whole state is one atomic long.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @param intervalNanos       Time to refill one token
+     * @param burstToleranceNanos Bucket capacity expressed as time: burst × interval
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, long burstToleranceNanos) {
+        while (true) {
+            long current = theoreticalArrivalNanos.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long waitNanos = next - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A full bucket behaves exactly like a new one, so it can be dropped
+     */
+    boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.client;
+
+import com.example.demo.service.CurrencyCode;
+import com.example.demo.service.RateMatrix;
+
+/**
+ * Fetches the rate table of one base currency from the exchange rate API.
+ * Selected with {@code exchange.api.client}: {@code blocking} (default) or {@code async}.
+ */
+@FunctionalInterface
+public interface ExchangeRateClient {
+
+    /**
+     * Fetch the current rates of every supported currency in one call
+     * @return Matrix of 1 {@code base} = ? each currency, from which any cross rate follows
+     * @throws RuntimeException if the rates cannot be fetched
+     */
+    RateMatrix fetchLatest(CurrencyCode base);
+}
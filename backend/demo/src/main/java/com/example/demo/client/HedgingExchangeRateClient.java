@@ -0,0 +1,199 @@
+package com.example.demo.client;
+
+import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.service.CurrencyCode;
+import com.example.demo.service.RateMatrix;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Non-blocking client on the JDK {@link HttpClient} async API with hedged requests.
+ * Each attempt has its own timeout. If the first attempt has not answered within the observed
+ * p95 latency, a second identical request is sent and whichever succeeds first wins; the
+ * other is cancelled. This trims tail latency on quotes that have to go upstream.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange.api.client", havingValue = "async")
+public class HedgingExchangeRateClient implements ExchangeRateClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingExchangeRateClient.class);
+
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MIN_SAMPLES_FOR_P95 = 20;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Counter hedgedRequests;
+
+    // Ring buffer of recent successful attempt latencies, used to estimate p95
+    private final AtomicLongArray latenciesMs = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicLong latencyCount = new AtomicLong();
+
+    @Value("${exchange.api.key}")
+    private String apiKey;
+
+    @Value("${exchange.api.base-url:https://v6.exchangerate-api.com/v6}")
+    private String baseUrl;
+
+    @Value("${exchange.api.async.attempt-timeout-ms:3000}")
+    private long attemptTimeoutMs;
+
+    @Value("${exchange.api.async.initial-hedge-delay-ms:500}")
+    private long initialHedgeDelayMs;
+
+    @Value("${exchange.api.async.min-hedge-delay-ms:50}")
+    private long minHedgeDelayMs;
+
+    public HedgingExchangeRateClient(ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${exchange.api.async.connect-timeout-ms:2000}") long connectTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.hedgedRequests = Counter.builder("exchange.rate.upstream.hedged")
+                .description("Exchange rate fetches that sent a second, hedged request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public RateMatrix fetchLatest(CurrencyCode base) {
+        URI uri = URI.create(String.format("%s/%s/latest/%s", baseUrl, apiKey, base));
+        CompletableFuture<RateMatrix> result = new CompletableFuture<>();
+        AtomicInteger pendingAttempts = new AtomicInteger(1);
+
+        Attempt primary = attempt(uri, base);
+        forward(primary.matrix(), result, pendingAttempts);
+
+        long hedgeDelayMs = hedgeDelayMs();
+        CompletableFuture.delayedExecutor(hedgeDelayMs, TimeUnit.MILLISECONDS).execute(() -> {
+            // Counted in before sending, and only while an attempt is still pending: once the last
+            // one has failed, the result is being completed exceptionally and a hedge would be wasted
+            if (result.isDone() || pendingAttempts.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            hedgedRequests.increment();
+            logger.debug("No exchange rates after {} ms, sending hedged request for base {}", hedgeDelayMs, base);
+            Attempt hedge = attempt(uri, base);
+            forward(hedge.matrix(), result, pendingAttempts);
+            result.whenComplete((rate, e) -> hedge.cancel());
+        });
+        result.whenComplete((rate, e) -> primary.cancel());
+
+        try {
+            // Each attempt times out on its own; this only guards against a stalled body read
+            return result.get(2 * attemptTimeoutMs + hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Unable to fetch exchange rate. Please try again later.", e);
+        } catch (ExecutionException | TimeoutException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            logger.error("Error fetching exchange rate from API", cause);
+            throw new RuntimeException("Unable to fetch exchange rate. Please try again later.", cause);
+        }
+    }
+
+    private Attempt attempt(URI uri, CurrencyCode base) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(attemptTimeoutMs))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<RateMatrix> matrix = exchange.thenApply(response -> {
+            RateMatrix parsed = parse(response.body(), base);
+            recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return parsed;
+        });
+        return new Attempt(exchange, matrix);
+    }
+
+    private RateMatrix parse(byte[] body, CurrencyCode base) {
+        ExchangeRateResponse response;
+        try {
+            response = objectMapper.readValue(body, ExchangeRateResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid exchange rate response", e);
+        }
+
+        if (response != null && response.isSuccess() && response.getConversionRates() != null) {
+            logger.info("Fetched {} exchange rates for base {}", response.getConversionRates().size(), base);
+            return RateMatrix.of(base, response.getConversionRates(), Instant.now());
+        }
+        String errorType = response != null ? response.getErrorType() : "Unknown error";
+        throw new RuntimeException("Failed to fetch exchange rate: " + errorType);
+    }
+
+    /**
+     * Complete the shared result with the first success, or with the last failure once every attempt failed
+     */
+    private static void forward(CompletableFuture<RateMatrix> attempt,
+                                CompletableFuture<RateMatrix> result,
+                                AtomicInteger pendingAttempts) {
+        attempt.whenComplete((rate, e) -> {
+            if (e == null) {
+                result.complete(rate);
+            } else if (pendingAttempts.decrementAndGet() == 0) {
+                result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+            }
+        });
+    }
+
+    /**
+     * One request in flight. Cancelling a future derived with thenApply leaves the exchange running,
+     * so cancellation goes to the future returned by sendAsync, which aborts the HTTP exchange.
+     */
+    private record Attempt(CompletableFuture<HttpResponse<byte[]>> exchange, CompletableFuture<RateMatrix> matrix) {
+
+        void cancel() {
+            exchange.cancel(true);
+        }
+    }
+
+    private void recordLatency(long latencyMs) {
+        long index = latencyCount.getAndIncrement();
+        latenciesMs.set((int) (index % LATENCY_SAMPLES), latencyMs);
+    }
+
+    /**
+     * Observed p95 of recent attempts, or the configured initial delay until enough samples exist
+     */
+    private long hedgeDelayMs() {
+        int samples = (int) Math.min(latencyCount.get(), LATENCY_SAMPLES);
+        if (samples < MIN_SAMPLES_FOR_P95) {
+            return initialHedgeDelayMs;
+        }
+        long[] recent = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            recent[i] = latenciesMs.get(i);
+        }
+        Arrays.sort(recent);
+        long p95 = recent[(int) Math.ceil(samples * 0.95) - 1];
+        return Math.max(minHedgeDelayMs, p95);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.client;
+
+import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.service.CurrencyCode;
+import com.example.demo.service.RateMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+
+/**
+ * Blocking client: one synchronous RestTemplate call per fetch.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange.api.client", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateExchangeRateClient implements ExchangeRateClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestTemplateExchangeRateClient.class);
+
+    private final RestTemplate restTemplate;
+
+    @Value("${exchange.api.key}")
+    private String apiKey;
+
+    @Value("${exchange.api.base-url:https://v6.exchangerate-api.com/v6}")
+    private String baseUrl;
+
+    public RestTemplateExchangeRateClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public RateMatrix fetchLatest(CurrencyCode base) {
+        String url = String.format("%s/%s/latest/%s", baseUrl, apiKey, base);
+
+        try {
+            ExchangeRateResponse response = restTemplate.getForObject(url, ExchangeRateResponse.class);
+
+            if (response != null && response.isSuccess() && response.getConversionRates() != null) {
+                logger.info("Fetched {} exchange rates for base {}", response.getConversionRates().size(), base);
+                return RateMatrix.of(base, response.getConversionRates(), Instant.now());
+            } else {
+                String errorType = response != null ? response.getErrorType() : "Unknown error";
+                logger.error("Failed to fetch exchange rate: {}", errorType);
+                throw new RuntimeException("Failed to fetch exchange rate: " + errorType);
+            }
+        } catch (Exception e) {
+            logger.error("Error fetching exchange rate from API", e);
+            throw new RuntimeException("Unable to fetch exchange rate. Please try again later.", e);
+        }
+    }
+}
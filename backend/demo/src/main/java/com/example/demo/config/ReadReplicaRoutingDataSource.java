@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Source of read-only connections: the replica, unless the current thread is pinned to the primary.
+ *
+ * {@link #readWriteSplitting} wraps both pools in a {@link LazyConnectionDataSourceProxy}, which
+ * defers fetching a physical connection until the first statement. By then the transaction manager
+ * has marked the connection read-only for {@code @Transactional(readOnly = true)}, so those
+ * transactions run on the replica and everything else runs on the primary.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Single DataSource that sends read-only transactions to the replica and all other work to the primary
+     */
+    public static DataSource readWriteSplitting(DataSource primary, DataSource replica) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(primary, replica));
+        return proxy;
+    }
+
+    /**
+     * Run reads on the primary even inside a read-only transaction, e.g. to see a write the replica
+     * may not have applied yet. Must be entered before the transaction issues its first statement.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean previous = PINNED_TO_PRIMARY.get();
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) {
+                PINNED_TO_PRIMARY.remove();
+            } else {
+                PINNED_TO_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get()) ? Target.PRIMARY : Target.REPLICA;
+    }
+}
@@ -1,32 +1,83 @@
 package com.example.demo.controller;
 
+import com.example.demo.admission.ClientIp;
+import com.example.demo.dto.BatchPreviewResult;
 import com.example.demo.dto.CalculationPreviewResponse;
+import com.example.demo.dto.DailyStatsResponse;
+import com.example.demo.dto.RateHistoryEntry;
+import com.example.demo.dto.SimulationPageResponse;
 import com.example.demo.dto.SimulationRequest;
 import com.example.demo.dto.SimulationResponse;
+import com.example.demo.service.CurrencyCode;
 import com.example.demo.service.FeeCalculatorService;
+import com.example.demo.service.FeeSchedule;
+import com.example.demo.service.RateHistoryService;
+import com.example.demo.service.RateSnapshot;
+import com.example.demo.service.SimulationExportService;
+import com.example.demo.service.SimulationStatsService;
 import com.example.demo.service.TransferSimulationService;
+import com.example.demo.stream.RateStreamBroadcaster;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/transfer")
 @CrossOrigin(origins = "*")
 public class TransferSimulationController {
 
+    private static final Duration FEE_STRUCTURE_MAX_AGE = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_RATE_HISTORY_RANGE = Duration.ofDays(1);
+    private static final int DEFAULT_STATS_DAYS = 30;
+
     private final TransferSimulationService transferService;
     private final FeeCalculatorService feeCalculatorService;
+    private final SimulationExportService exportService;
+    private final RateHistoryService rateHistoryService;
+    private final SimulationStatsService statsService;
+    private final RateStreamBroadcaster rateStreamBroadcaster;
+
+    // The fee schedule only changes between deploys, so it is serialized once
+    private final byte[] feeStructureJson;
+    private final String feeStructureETag;
 
     public TransferSimulationController(TransferSimulationService transferService,
-                                        FeeCalculatorService feeCalculatorService) {
+                                        FeeCalculatorService feeCalculatorService,
+                                        SimulationExportService exportService,
+                                        RateHistoryService rateHistoryService,
+                                        SimulationStatsService statsService,
+                                        RateStreamBroadcaster rateStreamBroadcaster,
+                                        ObjectMapper objectMapper) throws JsonProcessingException {
         this.transferService = transferService;
         this.feeCalculatorService = feeCalculatorService;
+        this.exportService = exportService;
+        this.rateHistoryService = rateHistoryService;
+        this.statsService = statsService;
+        this.rateStreamBroadcaster = rateStreamBroadcaster;
+        this.feeStructureJson = objectMapper.writeValueAsBytes(buildFeeStructure(feeCalculatorService));
+        this.feeStructureETag = "\"" + DigestUtils.md5DigestAsHex(feeStructureJson) + "\"";
     }
 
     /**
@@ -40,6 +91,18 @@ public class TransferSimulationController {
         return ResponseEntity.ok(preview);
     }
 
+    /**
+     * Preview many calculations against one exchange rate, without saving
+     * POST /api/transfer/preview/batch
+     * Not @Valid: items are validated one by one, so an invalid item gets an error entry instead of failing the batch
+     */
+    @PostMapping("/preview/batch")
+    public ResponseEntity<List<BatchPreviewResult>> previewTransferBatch(
+            @RequestBody List<SimulationRequest> requests) {
+        List<BatchPreviewResult> results = transferService.previewBatch(requests);
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Create a new transfer simulation (saves to history)
      * POST /api/transfer/simulate
@@ -47,47 +110,148 @@ public class TransferSimulationController {
     @PostMapping("/simulate")
     public ResponseEntity<SimulationResponse> createSimulation(
             @Valid @RequestBody SimulationRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpServletRequest httpRequest) {
-        String clientIp = getClientIp(httpRequest);
+        String clientIp = ClientIp.resolve(httpRequest);
         String userAgent = httpRequest.getHeader("User-Agent");
         
-        SimulationResponse response = transferService.createSimulation(request, clientIp, userAgent);
+        SimulationResponse response = transferService.createSimulation(request, clientIp, userAgent, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     /**
-     * Get all transfer simulations (public history)
-     * GET /api/transfer/history
+     * Get one page of transfer simulations (public history), newest first
+     * GET /api/transfer/history?cursor={nextCursor}&size={size}
      */
     @GetMapping("/history")
-    public ResponseEntity<List<SimulationResponse>> getHistory() {
-        List<SimulationResponse> history = transferService.getAllSimulations();
+    public ResponseEntity<SimulationPageResponse> getHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest httpRequest) {
+        SimulationPageResponse history = transferService.getSimulationPage(cursor, size, ClientIp.resolve(httpRequest));
         return ResponseEntity.ok(history);
     }
 
+    /**
+     * Stream the full simulation history (optionally within a date range) as NDJSON or CSV
+     * GET /api/transfer/history/export?format={ndjson|csv}&from={yyyy-MM-dd}&to={yyyy-MM-dd}
+     */
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        SimulationExportService.Format exportFormat = SimulationExportService.Format.fromParam(format);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        StreamingResponseBody body = out -> exportService.export(exportFormat, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"simulations." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     /**
      * Get a specific simulation by ID
      * GET /api/transfer/history/{id}
      */
     @GetMapping("/history/{id}")
-    public ResponseEntity<SimulationResponse> getSimulationById(@PathVariable Long id) {
-        SimulationResponse simulation = transferService.getSimulationById(id);
+    public ResponseEntity<SimulationResponse> getSimulationById(@PathVariable Long id,
+                                                                HttpServletRequest httpRequest) {
+        SimulationResponse simulation = transferService.getSimulationById(id, ClientIp.resolve(httpRequest));
         return ResponseEntity.ok(simulation);
     }
 
     /**
-     * Get current exchange rate
-     * GET /api/transfer/exchange-rate
+     * Get daily simulation volume, fees and counts per fee tier and input mode of one corridor
+     * (default: JPY → VND over the last 30 days)
+     * GET /api/transfer/stats?source={currency}&target={currency}&from={yyyy-MM-dd}&to={yyyy-MM-dd}
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<DailyStatsResponse>> getStats(
+            @RequestParam(defaultValue = "JPY") String source,
+            @RequestParam(defaultValue = "VND") String target,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_STATS_DAYS - 1);
+        List<DailyStatsResponse> stats = statsService.getDailyStats(
+                CurrencyCode.parse(source), CurrencyCode.parse(target), start, end);
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Get current exchange rate of a pair, any two supported currencies (default: JPY → VND)
+     * GET /api/transfer/exchange-rate?base={currency}&target={currency}
      */
     @GetMapping("/exchange-rate")
-    public ResponseEntity<Map<String, Object>> getExchangeRate() {
-        BigDecimal rate = transferService.getCurrentExchangeRate();
-        return ResponseEntity.ok(Map.of(
-                "base", "JPY",
-                "target", "VND",
-                "rate", rate,
-                "description", "1 JPY = " + rate + " VND"
-        ));
+    public ResponseEntity<Map<String, Object>> getExchangeRate(
+            @RequestParam(defaultValue = "JPY") String base,
+            @RequestParam(defaultValue = "VND") String target,
+            WebRequest webRequest) {
+        CurrencyCode from = CurrencyCode.parse(base);
+        CurrencyCode to = CurrencyCode.parse(target);
+        if (from == to) {
+            throw new IllegalArgumentException("Base and target currency must differ");
+        }
+
+        // Answer conditional requests from the cached rate without quoting or going upstream
+        RateSnapshot cached = transferService.getCachedExchangeRate(from, to);
+        if (cached != null && webRequest.checkNotModified(rateETag(from, to, cached))) {
+            return null;
+        }
+
+        RateSnapshot snapshot = transferService.getCurrentExchangeRate(from, to);
+        BigDecimal rate = snapshot.rate();
+        return ResponseEntity.ok()
+                .eTag(rateETag(from, to, snapshot))
+                .cacheControl(CacheControl.maxAge(transferService.getExchangeRateMaxAgeMs(snapshot),
+                        TimeUnit.MILLISECONDS))
+                .body(Map.of(
+                        "base", from.name(),
+                        "target", to.name(),
+                        "rate", rate,
+                        "description", "1 " + from + " = " + rate + " " + to
+                ));
+    }
+
+    /**
+     * Stream rate changes of a pair as Server-Sent Events (default: JPY → VND), starting with the current rate
+     * GET /api/transfer/exchange-rate/stream?base={currency}&target={currency}
+     */
+    @GetMapping(value = "/exchange-rate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamExchangeRate(
+            @RequestParam(defaultValue = "JPY") String base,
+            @RequestParam(defaultValue = "VND") String target) {
+        CurrencyCode from = CurrencyCode.parse(base);
+        CurrencyCode to = CurrencyCode.parse(target);
+        if (from == to) {
+            throw new IllegalArgumentException("Base and target currency must differ");
+        }
+        // Fails with a plain 503 before the stream is opened if no rate is available
+        RateSnapshot current = transferService.getCurrentExchangeRate(from, to);
+        return rateStreamBroadcaster.subscribe(from, to, current);
+    }
+
+    /**
+     * Get the exchange rates of a corridor fetched in a time range (default: JPY → VND over the last 24 hours),
+     * oldest first
+     * GET /api/transfer/exchange-rate/history?base={currency}&target={currency}&from={yyyy-MM-ddTHH:mm:ss}&to={yyyy-MM-ddTHH:mm:ss}
+     */
+    @GetMapping("/exchange-rate/history")
+    public ResponseEntity<List<RateHistoryEntry>> getExchangeRateHistory(
+            @RequestParam(defaultValue = "JPY") String base,
+            @RequestParam(defaultValue = "VND") String target,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_RATE_HISTORY_RANGE);
+        List<RateHistoryEntry> history = rateHistoryService.getHistory(
+                CurrencyCode.parse(base).name(), CurrencyCode.parse(target).name(), start, end);
+        return ResponseEntity.ok(history);
     }
 
     /**
@@ -95,16 +259,13 @@ public class TransferSimulationController {
      * GET /api/transfer/fee-structure
      */
     @GetMapping("/fee-structure")
-    public ResponseEntity<Map<String, Object>> getFeeStructure() {
-        return ResponseEntity.ok(Map.of(
-                "currency", "JPY",
-                "tiers", List.of(
-                        Map.of("minAmount", 100, "maxAmount", 10000, "fee", 100),
-                        Map.of("minAmount", 10001, "maxAmount", 50000, "fee", 400),
-                        Map.of("minAmount", 50001, "maxAmount", 100000, "fee", 700),
-                        Map.of("minAmount", 100001, "maxAmount", "unlimited", "fee", 1000)
-                )
-        ));
+    public ResponseEntity<byte[]> getFeeStructure() {
+        // Conditional requests are answered with 304 by Spring from the ETag alone
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(feeStructureETag)
+                .cacheControl(CacheControl.maxAge(FEE_STRUCTURE_MAX_AGE))
+                .body(feeStructureJson);
     }
 
     /**
@@ -121,11 +282,24 @@ public class TransferSimulationController {
         ));
     }
 
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+    private static Map<String, Object> buildFeeStructure(FeeCalculatorService feeCalculatorService) {
+        // Ordered maps keep the serialized bytes, and so the ETag, identical across instances
+        List<Map<String, Object>> tiers = new ArrayList<>();
+        for (FeeSchedule.Tier tier : feeCalculatorService.getSchedule().getTiers()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("minAmount", tier.minAmount());
+            entry.put("maxAmount", tier.isUnlimited() ? FeeSchedule.UNLIMITED : tier.maxAmount());
+            entry.put("fee", tier.fee());
+            tiers.add(entry);
         }
-        return request.getRemoteAddr();
+        Map<String, Object> feeStructure = new LinkedHashMap<>();
+        feeStructure.put("currency", "JPY");
+        feeStructure.put("tiers", tiers);
+        return feeStructure;
+    }
+
+    private static String rateETag(CurrencyCode from, CurrencyCode to, RateSnapshot snapshot) {
+        // A snapshot is replaced on every fetch, so its fetch time identifies the rate version
+        return "\"rate-" + from + "-" + to + "-" + snapshot.asOf().toEpochMilli() + "\"";
     }
 }
@@ -0,0 +1,49 @@
+package com.example.demo.dto;
+
+public class BatchPreviewResult {
+
+    private Integer index; // position of the request in the batch
+    private CalculationPreviewResponse preview; // null when the request failed
+    private String error; // null when the request succeeded
+
+    public BatchPreviewResult() {}
+
+    public BatchPreviewResult(Integer index, CalculationPreviewResponse preview, String error) {
+        this.index = index;
+        this.preview = preview;
+        this.error = error;
+    }
+
+    public static BatchPreviewResult success(int index, CalculationPreviewResponse preview) {
+        return new BatchPreviewResult(index, preview, null);
+    }
+
+    public static BatchPreviewResult failure(int index, String error) {
+        return new BatchPreviewResult(index, null, error);
+    }
+
+    // Getters and Setters
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public CalculationPreviewResponse getPreview() {
+        return preview;
+    }
+
+    public void setPreview(CalculationPreviewResponse preview) {
+        this.preview = preview;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -1,64 +1,163 @@
 package com.example.demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
+import java.time.Instant;
 
+// The deprecated JPY → VND names are written but ignored when read back
+@JsonIgnoreProperties(value = {"send_amount_jpy", "receive_amount_vnd", "fee_jpy", "rate_jpy_to_vnd", "net_amount_jpy"}, allowGetters = true)
 public class CalculationPreviewResponse {
 
-    private Long sendAmountJpy;
-    private Long receiveAmountVnd;
-    private Integer feeJpy;
-    private BigDecimal rateJpyToVnd;
-    private Long netAmountJpy; // sendAmountJpy - feeJpy (amount actually converted)
+    private String sourceCurrency;
+    private String targetCurrency;
+    private Long sendAmount;
+    private Long receiveAmount;
+    private Integer fee;
+    private BigDecimal rate; // 1 source = ? target
+    private Long netAmount; // sendAmount - fee (amount actually converted)
+    private Instant rateAsOf; // when the exchange rate was fetched from the upstream API
+    private boolean stale; // true if the upstream API was unavailable and an older rate was used
 
     public CalculationPreviewResponse() {}
 
-    public CalculationPreviewResponse(Long sendAmountJpy, Long receiveAmountVnd, 
-                                      Integer feeJpy, BigDecimal rateJpyToVnd, Long netAmountJpy) {
-        this.sendAmountJpy = sendAmountJpy;
-        this.receiveAmountVnd = receiveAmountVnd;
-        this.feeJpy = feeJpy;
-        this.rateJpyToVnd = rateJpyToVnd;
-        this.netAmountJpy = netAmountJpy;
+    public CalculationPreviewResponse(String sourceCurrency, String targetCurrency, Long sendAmount,
+                                      Long receiveAmount, Integer fee, BigDecimal rate, Long netAmount,
+                                      Instant rateAsOf, boolean stale) {
+        this.sourceCurrency = sourceCurrency;
+        this.targetCurrency = targetCurrency;
+        this.sendAmount = sendAmount;
+        this.receiveAmount = receiveAmount;
+        this.fee = fee;
+        this.rate = rate;
+        this.netAmount = netAmount;
+        this.rateAsOf = rateAsOf;
+        this.stale = stale;
     }
 
     // Getters and Setters
-    public Long getSendAmountJpy() {
-        return sendAmountJpy;
+    public String getSourceCurrency() {
+        return sourceCurrency;
     }
 
-    public void setSendAmountJpy(Long sendAmountJpy) {
-        this.sendAmountJpy = sendAmountJpy;
+    public void setSourceCurrency(String sourceCurrency) {
+        this.sourceCurrency = sourceCurrency;
     }
 
-    public Long getReceiveAmountVnd() {
-        return receiveAmountVnd;
+    public String getTargetCurrency() {
+        return targetCurrency;
     }
 
-    public void setReceiveAmountVnd(Long receiveAmountVnd) {
-        this.receiveAmountVnd = receiveAmountVnd;
+    public void setTargetCurrency(String targetCurrency) {
+        this.targetCurrency = targetCurrency;
     }
 
-    public Integer getFeeJpy() {
-        return feeJpy;
+    public Long getSendAmount() {
+        return sendAmount;
     }
 
-    public void setFeeJpy(Integer feeJpy) {
-        this.feeJpy = feeJpy;
+    public void setSendAmount(Long sendAmount) {
+        this.sendAmount = sendAmount;
     }
 
-    public BigDecimal getRateJpyToVnd() {
-        return rateJpyToVnd;
+    public Long getReceiveAmount() {
+        return receiveAmount;
+    }
+
+    public void setReceiveAmount(Long receiveAmount) {
+        this.receiveAmount = receiveAmount;
+    }
+
+    public Integer getFee() {
+        return fee;
+    }
+
+    public void setFee(Integer fee) {
+        this.fee = fee;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public Long getNetAmount() {
+        return netAmount;
+    }
+
+    public void setNetAmount(Long netAmount) {
+        this.netAmount = netAmount;
     }
 
-    public void setRateJpyToVnd(BigDecimal rateJpyToVnd) {
-        this.rateJpyToVnd = rateJpyToVnd;
+    public Instant getRateAsOf() {
+        return rateAsOf;
+    }
+
+    public void setRateAsOf(Instant rateAsOf) {
+        this.rateAsOf = rateAsOf;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
+    // Pre-corridor property names, kept for clients that read JPY → VND fields. They are written only
+    // for that corridor, where they carry the same values as the generic fields.
+
+    /**
+     * @deprecated use {@code send_amount}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getSendAmountJpy() {
+        return isJpyToVnd() ? sendAmount : null;
+    }
+
+    /**
+     * @deprecated use {@code receive_amount}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getReceiveAmountVnd() {
+        return isJpyToVnd() ? receiveAmount : null;
+    }
+
+    /**
+     * @deprecated use {@code fee}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getFeeJpy() {
+        return isJpyToVnd() ? fee : null;
+    }
+
+    /**
+     * @deprecated use {@code rate}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public BigDecimal getRateJpyToVnd() {
+        return isJpyToVnd() ? rate : null;
     }
 
+    /**
+     * @deprecated use {@code net_amount}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public Long getNetAmountJpy() {
-        return netAmountJpy;
+        return isJpyToVnd() ? netAmount : null;
     }
 
-    public void setNetAmountJpy(Long netAmountJpy) {
-        this.netAmountJpy = netAmountJpy;
+    private boolean isJpyToVnd() {
+        return "JPY".equals(sourceCurrency) && "VND".equals(targetCurrency);
     }
 }
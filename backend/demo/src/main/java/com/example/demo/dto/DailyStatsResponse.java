@@ -0,0 +1,81 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DailyStatsResponse {
+
+    private LocalDate date;
+    private Long simulationCount = 0L;
+    private Long totalSend = 0L;
+    private Long totalFee = 0L;
+    private Long totalReceive = 0L;
+    private List<FeeTierCount> feeTiers = new ArrayList<>();
+    private Map<String, Long> inputModes = new LinkedHashMap<>();
+
+    public DailyStatsResponse() {}
+
+    public DailyStatsResponse(LocalDate date) {
+        this.date = date;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Long getSimulationCount() {
+        return simulationCount;
+    }
+
+    public void setSimulationCount(Long simulationCount) {
+        this.simulationCount = simulationCount;
+    }
+
+    public Long getTotalSend() {
+        return totalSend;
+    }
+
+    public void setTotalSend(Long totalSend) {
+        this.totalSend = totalSend;
+    }
+
+    public Long getTotalFee() {
+        return totalFee;
+    }
+
+    public void setTotalFee(Long totalFee) {
+        this.totalFee = totalFee;
+    }
+
+    public Long getTotalReceive() {
+        return totalReceive;
+    }
+
+    public void setTotalReceive(Long totalReceive) {
+        this.totalReceive = totalReceive;
+    }
+
+    public List<FeeTierCount> getFeeTiers() {
+        return feeTiers;
+    }
+
+    public void setFeeTiers(List<FeeTierCount> feeTiers) {
+        this.feeTiers = feeTiers;
+    }
+
+    public Map<String, Long> getInputModes() {
+        return inputModes;
+    }
+
+    public void setInputModes(Map<String, Long> inputModes) {
+        this.inputModes = inputModes;
+    }
+}
@@ -2,14 +2,15 @@ package com.example.demo.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
+import java.util.Map;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ExchangeRateResponse {
 
     private String result;
     private String baseCode;
-    private String targetCode;
-    private BigDecimal conversionRate;
+    // Units of each currency per 1 base currency
+    private Map<String, BigDecimal> conversionRates;
 
     // For error response
     private String errorType;
@@ -30,20 +31,12 @@ public class ExchangeRateResponse {
         this.baseCode = baseCode;
     }
 
-    public String getTargetCode() {
-        return targetCode;
+    public Map<String, BigDecimal> getConversionRates() {
+        return conversionRates;
     }
 
-    public void setTargetCode(String targetCode) {
-        this.targetCode = targetCode;
-    }
-
-    public BigDecimal getConversionRate() {
-        return conversionRate;
-    }
-
-    public void setConversionRate(BigDecimal conversionRate) {
-        this.conversionRate = conversionRate;
+    public void setConversionRates(Map<String, BigDecimal> conversionRates) {
+        this.conversionRates = conversionRates;
     }
 
     public String getErrorType() {
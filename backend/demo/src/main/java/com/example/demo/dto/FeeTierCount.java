@@ -0,0 +1,41 @@
+package com.example.demo.dto;
+
+public class FeeTierCount {
+
+    private Integer fee;
+    private Integer tier; // index in the current fee schedule, null if no current tier charges this fee
+    private Long count;
+
+    public FeeTierCount() {}
+
+    public FeeTierCount(Integer fee, Integer tier, Long count) {
+        this.fee = fee;
+        this.tier = tier;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public Integer getFee() {
+        return fee;
+    }
+
+    public void setFee(Integer fee) {
+        this.fee = fee;
+    }
+
+    public Integer getTier() {
+        return tier;
+    }
+
+    public void setTier(Integer tier) {
+        this.tier = tier;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
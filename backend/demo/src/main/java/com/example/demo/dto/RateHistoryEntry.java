@@ -0,0 +1,46 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class RateHistoryEntry {
+
+    private Integer id;
+    private BigDecimal rate;
+    private LocalDateTime fetchedAt;
+
+    // Constructors
+    public RateHistoryEntry() {}
+
+    // Used by JPQL constructor projections in ExchangeRateSnapshotRepository
+    public RateHistoryEntry(Integer id, BigDecimal rate, LocalDateTime fetchedAt) {
+        this.id = id;
+        this.rate = rate;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(LocalDateTime fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
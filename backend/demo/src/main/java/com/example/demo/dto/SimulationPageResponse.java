@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class SimulationPageResponse {
+
+    private List<SimulationResponse> items;
+    private String nextCursor; // null when there are no older simulations
+
+    public SimulationPageResponse() {}
+
+    public SimulationPageResponse(List<SimulationResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<SimulationResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<SimulationResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.dto;
 
-import jakarta.validation.constraints.Min;
+import com.example.demo.service.CurrencyCode;
+import com.fasterxml.jackson.annotation.JsonAlias;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
@@ -9,33 +10,51 @@ public class SimulationRequest {
     @NotNull(message = "Input mode is required")
     private InputMode inputMode;
 
-    @Min(value = 100, message = "Minimum amount is 100 JPY")
-    private Long sendAmountJpy;
+    // Default to the original JPY → VND corridor, so existing clients keep working unchanged
+    private CurrencyCode sourceCurrency = CurrencyCode.JPY;
+    private CurrencyCode targetCurrency = CurrencyCode.VND;
 
+    // Whole units of the source currency
+    @Positive(message = "Send amount must be positive")
+    @JsonAlias("send_amount_jpy")
+    private Long sendAmount;
+
+    // Whole units of the target currency
     @Positive(message = "Receive amount must be positive")
-    private Long receiveAmountVnd;
+    @JsonAlias("receive_amount_vnd")
+    private Long receiveAmount;
 
     public enum InputMode {
-        JPY_INPUT,   // User enters JPY, system calculates VND
-        VND_INPUT    // User enters VND, system calculates JPY
+        JPY_INPUT,   // User enters the send amount (source currency), system calculates the receive amount
+        VND_INPUT    // User enters the receive amount (target currency), system calculates the send amount
     }
 
     /**
-     * Validate request based on input mode
+     * Validate request based on input mode.
+     * The minimum transfer amount is enforced by the fee schedule when the quote is priced.
      */
     public void validate() {
+        if (inputMode == null) {
+            throw new IllegalArgumentException("Input mode is required");
+        }
+        if (sourceCurrency == null || targetCurrency == null) {
+            throw new IllegalArgumentException("Source and target currency are required");
+        }
+        if (sourceCurrency == targetCurrency) {
+            throw new IllegalArgumentException("Source and target currency must differ");
+        }
         if (inputMode == InputMode.JPY_INPUT) {
-            if (sendAmountJpy == null) {
-                throw new IllegalArgumentException("sendAmountJpy is required when inputMode is JPY_INPUT");
+            if (sendAmount == null) {
+                throw new IllegalArgumentException("sendAmount is required when inputMode is JPY_INPUT");
             }
-            if (sendAmountJpy < 100) {
-                throw new IllegalArgumentException("Minimum transfer amount is ¥100");
+            if (sendAmount <= 0) {
+                throw new IllegalArgumentException("Send amount must be positive");
             }
         } else if (inputMode == InputMode.VND_INPUT) {
-            if (receiveAmountVnd == null) {
-                throw new IllegalArgumentException("receiveAmountVnd is required when inputMode is VND_INPUT");
+            if (receiveAmount == null) {
+                throw new IllegalArgumentException("receiveAmount is required when inputMode is VND_INPUT");
             }
-            if (receiveAmountVnd <= 0) {
+            if (receiveAmount <= 0) {
                 throw new IllegalArgumentException("Receive amount must be positive");
             }
         }
@@ -50,19 +69,35 @@ public class SimulationRequest {
         this.inputMode = inputMode;
     }
 
-    public Long getSendAmountJpy() {
-        return sendAmountJpy;
+    public CurrencyCode getSourceCurrency() {
+        return sourceCurrency;
+    }
+
+    public void setSourceCurrency(CurrencyCode sourceCurrency) {
+        this.sourceCurrency = sourceCurrency;
+    }
+
+    public CurrencyCode getTargetCurrency() {
+        return targetCurrency;
+    }
+
+    public void setTargetCurrency(CurrencyCode targetCurrency) {
+        this.targetCurrency = targetCurrency;
+    }
+
+    public Long getSendAmount() {
+        return sendAmount;
     }
 
-    public void setSendAmountJpy(Long sendAmountJpy) {
-        this.sendAmountJpy = sendAmountJpy;
+    public void setSendAmount(Long sendAmount) {
+        this.sendAmount = sendAmount;
     }
 
-    public Long getReceiveAmountVnd() {
-        return receiveAmountVnd;
+    public Long getReceiveAmount() {
+        return receiveAmount;
     }
 
-    public void setReceiveAmountVnd(Long receiveAmountVnd) {
-        this.receiveAmountVnd = receiveAmountVnd;
+    public void setReceiveAmount(Long receiveAmount) {
+        this.receiveAmount = receiveAmount;
     }
 }
@@ -1,33 +1,50 @@
 package com.example.demo.dto;
 
+import com.example.demo.entity.TransferSimulation;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// The deprecated JPY → VND names are written but ignored when read back
+@JsonIgnoreProperties(value = {"send_amount_jpy", "receive_amount_vnd", "fee_jpy", "rate_jpy_to_vnd"}, allowGetters = true)
 public class SimulationResponse {
 
     private Long id;
     private LocalDateTime createdAt;
-    private Long sendAmountJpy;
-    private Long receiveAmountVnd;
-    private Integer feeJpy;
-    private BigDecimal rateJpyToVnd;
+    private String sourceCurrency;
+    private String targetCurrency;
+    private Long sendAmount;
+    private Long receiveAmount;
+    private Integer fee;
+    private BigDecimal rate; // 1 source = ? target
     private String inputMode;
 
     // Constructors
     public SimulationResponse() {}
 
-    public SimulationResponse(Long id, LocalDateTime createdAt, Long sendAmountJpy, 
-                              Long receiveAmountVnd, Integer feeJpy, 
-                              BigDecimal rateJpyToVnd, String inputMode) {
+    public SimulationResponse(Long id, LocalDateTime createdAt, String sourceCurrency, String targetCurrency,
+                              Long sendAmount, Long receiveAmount, Integer fee,
+                              BigDecimal rate, String inputMode) {
         this.id = id;
         this.createdAt = createdAt;
-        this.sendAmountJpy = sendAmountJpy;
-        this.receiveAmountVnd = receiveAmountVnd;
-        this.feeJpy = feeJpy;
-        this.rateJpyToVnd = rateJpyToVnd;
+        this.sourceCurrency = sourceCurrency;
+        this.targetCurrency = targetCurrency;
+        this.sendAmount = sendAmount;
+        this.receiveAmount = receiveAmount;
+        this.fee = fee;
+        this.rate = rate;
         this.inputMode = inputMode;
     }
 
+    // Used by JPQL constructor projections in TransferSimulationRepository
+    public SimulationResponse(Long id, LocalDateTime createdAt, String sourceCurrency, String targetCurrency,
+                              Long sendAmount, Long receiveAmount, Integer fee,
+                              BigDecimal rate, TransferSimulation.InputMode inputMode) {
+        this(id, createdAt, sourceCurrency, targetCurrency, sendAmount, receiveAmount, fee, rate, inputMode.name());
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -45,36 +62,52 @@ public class SimulationResponse {
         this.createdAt = createdAt;
     }
 
-    public Long getSendAmountJpy() {
-        return sendAmountJpy;
+    public String getSourceCurrency() {
+        return sourceCurrency;
     }
 
-    public void setSendAmountJpy(Long sendAmountJpy) {
-        this.sendAmountJpy = sendAmountJpy;
+    public void setSourceCurrency(String sourceCurrency) {
+        this.sourceCurrency = sourceCurrency;
     }
 
-    public Long getReceiveAmountVnd() {
-        return receiveAmountVnd;
+    public String getTargetCurrency() {
+        return targetCurrency;
     }
 
-    public void setReceiveAmountVnd(Long receiveAmountVnd) {
-        this.receiveAmountVnd = receiveAmountVnd;
+    public void setTargetCurrency(String targetCurrency) {
+        this.targetCurrency = targetCurrency;
     }
 
-    public Integer getFeeJpy() {
-        return feeJpy;
+    public Long getSendAmount() {
+        return sendAmount;
     }
 
-    public void setFeeJpy(Integer feeJpy) {
-        this.feeJpy = feeJpy;
+    public void setSendAmount(Long sendAmount) {
+        this.sendAmount = sendAmount;
     }
 
-    public BigDecimal getRateJpyToVnd() {
-        return rateJpyToVnd;
+    public Long getReceiveAmount() {
+        return receiveAmount;
+    }
+
+    public void setReceiveAmount(Long receiveAmount) {
+        this.receiveAmount = receiveAmount;
+    }
+
+    public Integer getFee() {
+        return fee;
+    }
+
+    public void setFee(Integer fee) {
+        this.fee = fee;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
     }
 
-    public void setRateJpyToVnd(BigDecimal rateJpyToVnd) {
-        this.rateJpyToVnd = rateJpyToVnd;
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
     }
 
     public String getInputMode() {
@@ -84,4 +117,47 @@ public class SimulationResponse {
     public void setInputMode(String inputMode) {
         this.inputMode = inputMode;
     }
+
+    // Pre-corridor property names, kept for clients that read JPY → VND fields. They are written only
+    // for that corridor, where they carry the same values as the generic fields.
+
+    /**
+     * @deprecated use {@code send_amount}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getSendAmountJpy() {
+        return isJpyToVnd() ? sendAmount : null;
+    }
+
+    /**
+     * @deprecated use {@code receive_amount}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getReceiveAmountVnd() {
+        return isJpyToVnd() ? receiveAmount : null;
+    }
+
+    /**
+     * @deprecated use {@code fee}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getFeeJpy() {
+        return isJpyToVnd() ? fee : null;
+    }
+
+    /**
+     * @deprecated use {@code rate}; written only for JPY → VND
+     */
+    @Deprecated
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public BigDecimal getRateJpyToVnd() {
+        return isJpyToVnd() ? rate : null;
+    }
+
+    private boolean isJpyToVnd() {
+        return "JPY".equals(sourceCurrency) && "VND".equals(targetCurrency);
+    }
 }
@@ -0,0 +1,81 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One exchange rate fetched from the upstream API.
+ * Written once per fetch and referenced by every simulation quoted with it.
+ */
+@Entity
+@Table(name = "rate_snapshots")
+public class ExchangeRateSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "base_currency", nullable = false, columnDefinition = "CHAR(3)")
+    private String baseCurrency;
+
+    @Column(name = "quote_currency", nullable = false, columnDefinition = "CHAR(3)")
+    private String quoteCurrency;
+
+    @Column(name = "rate", nullable = false, precision = 26, scale = 14)
+    private BigDecimal rate;
+
+    @Column(name = "fetched_at", nullable = false, updatable = false)
+    private LocalDateTime fetchedAt;
+
+    // Constructors
+    public ExchangeRateSnapshot() {}
+
+    public ExchangeRateSnapshot(String baseCurrency, String quoteCurrency, BigDecimal rate, LocalDateTime fetchedAt) {
+        this.baseCurrency = baseCurrency;
+        this.quoteCurrency = quoteCurrency;
+        this.rate = rate;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    public String getQuoteCurrency() {
+        return quoteCurrency;
+    }
+
+    public void setQuoteCurrency(String quoteCurrency) {
+        this.quoteCurrency = quoteCurrency;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(LocalDateTime fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
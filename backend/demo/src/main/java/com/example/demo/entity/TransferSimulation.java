@@ -1,7 +1,6 @@
 package com.example.demo.entity;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -15,28 +14,31 @@ public class TransferSimulation {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @Column(name = "send_amount_jpy", nullable = false)
-    private Long sendAmountJpy;
+    // ISO 4217 codes of the corridor; amounts are whole units of these currencies
+    @Column(name = "source_currency", nullable = false, columnDefinition = "CHAR(3)")
+    private String sourceCurrency;
 
-    @Column(name = "receive_amount_vnd", nullable = false)
-    private Long receiveAmountVnd;
+    @Column(name = "target_currency", nullable = false, columnDefinition = "CHAR(3)")
+    private String targetCurrency;
 
-    @Column(name = "fee_jpy", nullable = false)
-    private Integer feeJpy;
+    @Column(name = "send_amount", nullable = false)
+    private Long sendAmount;
 
-    @Column(name = "rate_jpy_to_vnd", nullable = false, precision = 18, scale = 8)
-    private BigDecimal rateJpyToVnd;
+    @Column(name = "receive_amount", nullable = false)
+    private Long receiveAmount;
+
+    // Charged in the source currency
+    @Column(name = "fee", nullable = false)
+    private Integer fee;
+
+    // Exchange rate used, stored once in rate_snapshots
+    @Column(name = "rate_snapshot_id", nullable = false)
+    private Integer rateSnapshotId;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "input_mode", nullable = false)
     private InputMode inputMode = InputMode.BOTH;
 
-    @Column(name = "client_ip", length = 45)
-    private String clientIp;
-
-    @Column(name = "user_agent", length = 255)
-    private String userAgent;
-
     public enum InputMode {
         JPY_INPUT, VND_INPUT, BOTH
     }
@@ -49,12 +51,14 @@ public class TransferSimulation {
     // Constructors
     public TransferSimulation() {}
 
-    public TransferSimulation(Long sendAmountJpy, Long receiveAmountVnd, Integer feeJpy, 
-                              BigDecimal rateJpyToVnd, InputMode inputMode) {
-        this.sendAmountJpy = sendAmountJpy;
-        this.receiveAmountVnd = receiveAmountVnd;
-        this.feeJpy = feeJpy;
-        this.rateJpyToVnd = rateJpyToVnd;
+    public TransferSimulation(String sourceCurrency, String targetCurrency, Long sendAmount, Long receiveAmount,
+                              Integer fee, Integer rateSnapshotId, InputMode inputMode) {
+        this.sourceCurrency = sourceCurrency;
+        this.targetCurrency = targetCurrency;
+        this.sendAmount = sendAmount;
+        this.receiveAmount = receiveAmount;
+        this.fee = fee;
+        this.rateSnapshotId = rateSnapshotId;
         this.inputMode = inputMode;
     }
 
@@ -75,59 +79,59 @@ public class TransferSimulation {
         this.createdAt = createdAt;
     }
 
-    public Long getSendAmountJpy() {
-        return sendAmountJpy;
+    public String getSourceCurrency() {
+        return sourceCurrency;
     }
 
-    public void setSendAmountJpy(Long sendAmountJpy) {
-        this.sendAmountJpy = sendAmountJpy;
+    public void setSourceCurrency(String sourceCurrency) {
+        this.sourceCurrency = sourceCurrency;
     }
 
-    public Long getReceiveAmountVnd() {
-        return receiveAmountVnd;
+    public String getTargetCurrency() {
+        return targetCurrency;
     }
 
-    public void setReceiveAmountVnd(Long receiveAmountVnd) {
-        this.receiveAmountVnd = receiveAmountVnd;
+    public void setTargetCurrency(String targetCurrency) {
+        this.targetCurrency = targetCurrency;
     }
 
-    public Integer getFeeJpy() {
-        return feeJpy;
+    public Long getSendAmount() {
+        return sendAmount;
     }
 
-    public void setFeeJpy(Integer feeJpy) {
-        this.feeJpy = feeJpy;
+    public void setSendAmount(Long sendAmount) {
+        this.sendAmount = sendAmount;
     }
 
-    public BigDecimal getRateJpyToVnd() {
-        return rateJpyToVnd;
+    public Long getReceiveAmount() {
+        return receiveAmount;
     }
 
-    public void setRateJpyToVnd(BigDecimal rateJpyToVnd) {
-        this.rateJpyToVnd = rateJpyToVnd;
+    public void setReceiveAmount(Long receiveAmount) {
+        this.receiveAmount = receiveAmount;
     }
 
-    public InputMode getInputMode() {
-        return inputMode;
+    public Integer getFee() {
+        return fee;
     }
 
-    public void setInputMode(InputMode inputMode) {
-        this.inputMode = inputMode;
+    public void setFee(Integer fee) {
+        this.fee = fee;
     }
 
-    public String getClientIp() {
-        return clientIp;
+    public Integer getRateSnapshotId() {
+        return rateSnapshotId;
     }
 
-    public void setClientIp(String clientIp) {
-        this.clientIp = clientIp;
+    public void setRateSnapshotId(Integer rateSnapshotId) {
+        this.rateSnapshotId = rateSnapshotId;
     }
 
-    public String getUserAgent() {
-        return userAgent;
+    public InputMode getInputMode() {
+        return inputMode;
     }
 
-    public void setUserAgent(String userAgent) {
-        this.userAgent = userAgent;
+    public void setInputMode(InputMode inputMode) {
+        this.inputMode = inputMode;
     }
 }
@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when a request conflicts with one that is still being processed, such as a duplicate
+ * Idempotency-Key whose first request has not finished on another instance.
+ * Mapped to 409 Conflict by {@link GlobalExceptionHandler}.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
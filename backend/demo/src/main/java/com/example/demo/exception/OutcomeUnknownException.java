@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when a write timed out after it was handed to the database, so it may still commit.
+ * Unlike {@link ServiceUnavailableException}, the client must not assume nothing happened: a plain
+ * retry may create a duplicate, a retry with the same Idempotency-Key is safe.
+ * Mapped to 503 Service Unavailable by {@link GlobalExceptionHandler}, with its own error label.
+ */
+public class OutcomeUnknownException extends RuntimeException {
+
+    public OutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
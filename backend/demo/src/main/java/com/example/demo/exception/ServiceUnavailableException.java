@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when the service is temporarily overloaded and the client should retry later.
+ * Mapped to 503 Service Unavailable by {@link GlobalExceptionHandler}.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.RateHistoryEntry;
+import com.example.demo.entity.ExchangeRateSnapshot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExchangeRateSnapshotRepository extends JpaRepository<ExchangeRateSnapshot, Integer> {
+
+    /**
+     * Rates fetched for one pair in [from, to), oldest first.
+     * A range scan on idx_pair_fetched_at.
+     */
+    @Query("""
+            SELECT new com.example.demo.dto.RateHistoryEntry(r.id, r.rate, r.fetchedAt)
+            FROM ExchangeRateSnapshot r
+            WHERE r.baseCurrency = :base AND r.quoteCurrency = :quote
+              AND r.fetchedAt >= :from AND r.fetchedAt < :to
+            ORDER BY r.fetchedAt, r.id
+            """)
+    List<RateHistoryEntry> findHistory(@Param("base") String base,
+                                       @Param("quote") String quote,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Limit limit);
+}
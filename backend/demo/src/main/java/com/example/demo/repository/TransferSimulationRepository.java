@@ -1,13 +1,60 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.SimulationResponse;
 import com.example.demo.entity.TransferSimulation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TransferSimulationRepository extends JpaRepository<TransferSimulation, Long> {
-    
-    List<TransferSimulation> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * One simulation with its exchange rate, projected straight into a DTO
+     */
+    @Query("""
+            SELECT new com.example.demo.dto.SimulationResponse(
+                s.id, s.createdAt, s.sourceCurrency, s.targetCurrency, s.sendAmount, s.receiveAmount, s.fee,
+                r.rate, s.inputMode)
+            FROM TransferSimulation s
+            JOIN ExchangeRateSnapshot r ON r.id = s.rateSnapshotId
+            WHERE s.id = :id
+            """)
+    Optional<SimulationResponse> findResponseById(@Param("id") Long id);
+
+    /**
+     * Newest simulations first, projected straight into DTOs (no managed entities).
+     * Ordered by (created_at, id) so the scan follows idx_created_at.
+     */
+    @Query("""
+            SELECT new com.example.demo.dto.SimulationResponse(
+                s.id, s.createdAt, s.sourceCurrency, s.targetCurrency, s.sendAmount, s.receiveAmount, s.fee,
+                r.rate, s.inputMode)
+            FROM TransferSimulation s
+            JOIN ExchangeRateSnapshot r ON r.id = s.rateSnapshotId
+            ORDER BY s.createdAt DESC, s.id DESC
+            """)
+    List<SimulationResponse> findLatest(Limit limit);
+
+    /**
+     * Simulations strictly older than the (createdAt, id) cursor, newest first.
+     */
+    @Query("""
+            SELECT new com.example.demo.dto.SimulationResponse(
+                s.id, s.createdAt, s.sourceCurrency, s.targetCurrency, s.sendAmount, s.receiveAmount, s.fee,
+                r.rate, s.inputMode)
+            FROM TransferSimulation s
+            JOIN ExchangeRateSnapshot r ON r.id = s.rateSnapshotId
+            WHERE s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)
+            ORDER BY s.createdAt DESC, s.id DESC
+            """)
+    List<SimulationResponse> findBefore(@Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
 }
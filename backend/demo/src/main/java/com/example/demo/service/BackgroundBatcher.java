@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue drained by one background thread in batches, shared by the write-behind and audit writers.
+ * A batch is handed to the flush action when it fills or the flush interval since its first item elapses.
+ * Stopping is atomic with admission: nothing is accepted after stop() has told the thread to drain and exit.
+ */
+final class BackgroundBatcher<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundBatcher.class);
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<T>> flushAction;
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // Offering holds the read lock and stop() the write lock
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+
+    /**
+     * @param name        Writer thread name
+     * @param flushAction Writes one batch; must handle its own failures
+     */
+    BackgroundBatcher(String name, int capacity, int batchSize, long flushIntervalMs, Consumer<List<T>> flushAction) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.flushAction = flushAction;
+    }
+
+    /**
+     * SQL of one multi-row INSERT, the statement both writers flush a batch with
+     */
+    static String multiRowInsert(String insertPrefix, String valuesRow, int rows) {
+        StringBuilder sql = new StringBuilder(insertPrefix.length() + rows * (valuesRow.length() + 1))
+                .append(insertPrefix);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ",").append(valuesRow);
+        }
+        return sql.toString();
+    }
+
+    void start() {
+        running = true;
+        writerThread = new Thread(this::run, name);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stop accepting items and wait for the queued ones to be flushed
+     * @return Items still queued when the wait ran out, never flushed
+     */
+    List<T> stop(long timeoutMs) throws InterruptedException {
+        admission.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            admission.writeLock().unlock();
+        }
+        if (writerThread != null) {
+            writerThread.join(timeoutMs);
+        }
+        List<T> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        return unwritten;
+    }
+
+    /**
+     * Queue an item, waiting up to the timeout for room
+     * @return false if the queue stayed full
+     * @throws RejectedExecutionException if the batcher is stopped
+     */
+    boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        admission.readLock().lock();
+        try {
+            checkRunning();
+            return queue.offer(item, timeout, unit);
+        } finally {
+            admission.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queue an item without blocking, discarding the oldest queued items while the queue is full
+     * @param onDrop Called with every discarded item
+     * @throws RejectedExecutionException if the batcher is stopped
+     */
+    void offerDroppingOldest(T item, Consumer<T> onDrop) {
+        admission.readLock().lock();
+        try {
+            checkRunning();
+            while (!queue.offer(item)) {
+                T oldest = queue.poll();
+                if (oldest != null) {
+                    onDrop.accept(oldest);
+                }
+            }
+        } finally {
+            admission.readLock().unlock();
+        }
+    }
+
+    /**
+     * Withdraw a queued item
+     * @return false if it was already taken for a batch or never queued
+     */
+    boolean remove(T item) {
+        return queue.remove(item);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new RejectedExecutionException(name + " is stopped");
+        }
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    fillBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, via the poll timeout, so queued items are always drained
+                logger.warn("{} interrupted, continuing until drained", name);
+            }
+            if (!batch.isEmpty()) {
+                flushAction.accept(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Keep collecting items until the batch is full or the flush interval since the first item elapses
+     */
+    private void fillBatch(List<T> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker around a remote call.
+ * After {@code failureThreshold} failures in a row the circuit opens and calls are rejected
+ * without being attempted. Once the open duration has passed, a single probe call is let
+ * through (half-open): its success closes the circuit, its failure opens it again.
+ * Lock-free, so callers on virtual threads never pin their carrier.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAtNanos;
+
+    CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openDurationMs, LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true if the call may be attempted; the caller must then report its outcome
+     */
+    boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos) {
+            // Only the caller that moves the circuit to half-open gets to probe
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    void onFailure() {
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED
+                && consecutiveFailures.incrementAndGet() >= failureThreshold)) {
+            open();
+        }
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    boolean isClosed() {
+        return state.get() == State.CLOSED;
+    }
+
+    private void open() {
+        // Written before the state, so a caller that sees OPEN also sees when it opened
+        openedAtNanos = nanoClock.getAsLong();
+        consecutiveFailures.set(0);
+        state.set(State.OPEN);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A source → target currency pair that transfers can be quoted for.
+ * Configured as "SOURCE:TARGET" pairs, e.g. {@code JPY:VND,JPY:PHP,USD:VND}.
+ */
+public record Corridor(CurrencyCode source, CurrencyCode target) {
+
+    public Corridor {
+        if (source == target) {
+            throw new IllegalArgumentException("A corridor needs two different currencies: " + source);
+        }
+    }
+
+    public static List<Corridor> parseList(String text) {
+        List<Corridor> corridors = new ArrayList<>();
+        for (String entry : text.split(",")) {
+            String[] pair = entry.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid corridor '" + entry.trim() + "', expected SOURCE:TARGET");
+            }
+            Corridor corridor = new Corridor(CurrencyCode.parse(pair[0]), CurrencyCode.parse(pair[1]));
+            if (!corridors.contains(corridor)) {
+                corridors.add(corridor);
+            }
+        }
+        if (corridors.isEmpty()) {
+            throw new IllegalArgumentException("At least one corridor is required");
+        }
+        return List.copyOf(corridors);
+    }
+
+    @Override
+    public String toString() {
+        return source + "/" + target;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+import java.util.Locale;
+
+/**
+ * Currencies the rate matrix keeps. The ordinal indexes {@link RateMatrix}'s arrays, so adding a
+ * currency only needs a new constant here. Amounts in every currency are whole units.
+ */
+public enum CurrencyCode {
+    JPY, VND, PHP, IDR, USD;
+
+    /**
+     * Parse an ISO 4217 code, case-insensitively
+     * @throws IllegalArgumentException if the currency is not supported
+     */
+    public static CurrencyCode parse(String code) {
+        try {
+            return valueOf(code.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unsupported currency: " + code);
+        }
+    }
+}
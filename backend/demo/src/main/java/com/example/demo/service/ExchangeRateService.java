@@ -1,76 +1,319 @@
 package com.example.demo.service;
 
-import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.client.ExchangeRateClient;
+import com.example.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+/**
+ * Exchange rates for every configured corridor, from one upstream call per refresh.
+ * The whole table of the base currency is fetched at once into a {@link RateMatrix}; any other
+ * pair, such as USD/VND with a JPY base, is a cross rate through the base currency.
+ *
+ * Upstream calls go through a circuit breaker. While the upstream API is failing, quotes are
+ * served from the last good matrix as long as it is within the stale budget, without waiting
+ * on the upstream; the background refresh makes the half-open probe that restores live rates.
+ */
 @Service
 public class ExchangeRateService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
 
-    private final RestTemplate restTemplate;
+    private final ExchangeRateClient client;
+    private final RateHistoryService rateHistory;
+    private final MeterRegistry meterRegistry;
+    private final CurrencyCode baseCurrency;
+    private final List<Corridor> corridors;
+    private final boolean[] corridorIndex; // [source * n + target]
+    private final CircuitBreaker circuitBreaker;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter staleServed;
+    private final Counter circuitRejected;
 
-    @Value("${exchange.api.key}")
-    private String apiKey;
+    /**
+     * Latest matrix. Matrices are immutable and replaced atomically, so request threads read
+     * them without locking.
+     */
+    private final AtomicReference<RateMatrix> rateCache = new AtomicReference<>();
+
+    /**
+     * At most one upstream request is in flight; concurrent misses share its outcome.
+     */
+    private final SingleFlight<CurrencyCode, RateMatrix> upstreamCalls = new SingleFlight<>();
 
-    @Value("${exchange.api.base-url:https://v6.exchangerate-api.com/v6}")
-    private String baseUrl;
+    private final List<Consumer<RateMatrix>> rateListeners = new CopyOnWriteArrayList<>();
+
+    @Value("${exchange.rate.max-staleness-ms:300000}")
+    private long maxStalenessMs;
+
+    @Value("${exchange.rate.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    @Value("${exchange.rate.stale-budget-ms:3600000}")
+    private long staleBudgetMs;
+
+    /**
+     * @param baseCurrency            Currency whose "latest" table is fetched
+     * @param corridors               Quotable pairs as "SOURCE:TARGET", see {@link Corridor#parseList(String)}
+     * @param circuitFailureThreshold Consecutive upstream failures that open the circuit
+     * @param circuitOpenDurationMs   How long the circuit stays open before a probe is allowed
+     */
+    public ExchangeRateService(ExchangeRateClient client,
+                               RateHistoryService rateHistory,
+                               MeterRegistry meterRegistry,
+                               @Value("${exchange.rate.base-currency:JPY}") String baseCurrency,
+                               @Value("${exchange.rate.corridors:JPY:VND}") String corridors,
+                               @Value("${exchange.rate.circuit.failure-threshold:5}") int circuitFailureThreshold,
+                               @Value("${exchange.rate.circuit.open-duration-ms:30000}") long circuitOpenDurationMs) {
+        this.client = client;
+        this.rateHistory = rateHistory;
+        this.meterRegistry = meterRegistry;
+        this.baseCurrency = CurrencyCode.parse(baseCurrency);
+        this.corridors = Corridor.parseList(corridors);
+        this.circuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenDurationMs);
+
+        int n = CurrencyCode.values().length;
+        this.corridorIndex = new boolean[n * n];
+        for (Corridor corridor : this.corridors) {
+            corridorIndex[corridor.source().ordinal() * n + corridor.target().ordinal()] = true;
+        }
+
+        this.cacheHits = Counter.builder("exchange.rate.cache")
+                .description("Exchange rate lookups served from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("exchange.rate.cache")
+                .description("Exchange rate lookups that had to wait for an upstream fetch")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.staleServed = Counter.builder("exchange.rate.stale")
+                .description("Quotes served from a stale rate matrix because the upstream API was unavailable")
+                .register(meterRegistry);
+        this.circuitRejected = Counter.builder("exchange.rate.circuit.rejected")
+                .description("Upstream calls rejected without being attempted because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rate.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Upstream circuit state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Configured corridors, in configuration order
+     */
+    public List<Corridor> getCorridors() {
+        return corridors;
+    }
 
-    public ExchangeRateService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    /**
+     * @throws IllegalArgumentException if transfers from {@code source} to {@code target} are not offered
+     */
+    public void requireCorridor(CurrencyCode source, CurrencyCode target) {
+        if (!corridorIndex[source.ordinal() * CurrencyCode.values().length + target.ordinal()]) {
+            throw new IllegalArgumentException("Transfers from " + source + " to " + target + " are not supported");
+        }
     }
 
     /**
-     * Fetch real-time exchange rate from JPY to VND
-     * @return Exchange rate (1 JPY = ? VND)
+     * Get a fresh rate matrix, fetching it if the cached one is missing or too old.
+     * Every rate of one quote should come from the same matrix, so they share one moment.
+     * If the upstream API is unavailable, the last good matrix is returned while it is within
+     * the stale budget; see {@link #isStale(RateMatrix)}.
+     * @throws ServiceUnavailableException if no usable matrix is available
      */
-    public BigDecimal getJpyToVndRate() {
-        String url = String.format("%s/%s/pair/JPY/VND", baseUrl, apiKey);
-        
+    public RateMatrix getRateMatrix() {
+        RateMatrix cached = freshMatrix();
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        RateMatrix stale = staleMatrix();
+        if (stale != null && !circuitBreaker.isClosed()) {
+            // Fail fast while the upstream is down; the background refresh probes for recovery
+            staleServed.increment();
+            return stale;
+        }
+
+        cacheMisses.increment();
         try {
-            ExchangeRateResponse response = restTemplate.getForObject(url, ExchangeRateResponse.class);
-            
-            if (response != null && response.isSuccess()) {
-                logger.info("Fetched exchange rate: 1 JPY = {} VND", response.getConversionRate());
-                return response.getConversionRate();
-            } else {
-                String errorType = response != null ? response.getErrorType() : "Unknown error";
-                logger.error("Failed to fetch exchange rate: {}", errorType);
-                throw new RuntimeException("Failed to fetch exchange rate: " + errorType);
+            return upstreamCalls.execute(baseCurrency, () -> {
+                // Another caller may have refreshed the matrix between our miss and taking the flight
+                RateMatrix current = freshMatrix();
+                return current != null ? current : fetchAndCache();
+            });
+        } catch (RuntimeException e) {
+            stale = staleMatrix();
+            if (stale != null) {
+                logger.warn("Serving {} rates from {} after upstream failure: {}",
+                        baseCurrency, stale.getAsOf(), e.getMessage());
+                staleServed.increment();
+                return stale;
+            }
+            if (e instanceof ServiceUnavailableException) {
+                throw e;
             }
-        } catch (Exception e) {
-            logger.error("Error fetching exchange rate from API", e);
-            throw new RuntimeException("Unable to fetch exchange rate. Please try again later.", e);
+            throw new ServiceUnavailableException("Exchange rates are temporarily unavailable. Please try again later.", e);
         }
     }
 
     /**
-     * Fetch real-time exchange rate from VND to JPY
-     * @return Exchange rate (1 VND = ? JPY)
+     * @return true if the matrix is older than the maximum staleness, i.e. it was served because
+     * the upstream API was unavailable
      */
-    public BigDecimal getVndToJpyRate() {
-        String url = String.format("%s/%s/pair/VND/JPY", baseUrl, apiKey);
-        
+    public boolean isStale(RateMatrix matrix) {
+        return !matrix.isFresh(maxStalenessMs, System.currentTimeMillis());
+    }
+
+    /**
+     * Get a consistent snapshot of one pair holding both directions and the time it was fetched
+     * @return Snapshot with rate (1 from = ? to), inverse rate (1 to = ? from) and "as of" timestamp
+     */
+    public RateSnapshot getSnapshot(CurrencyCode from, CurrencyCode to) {
+        return getRateMatrix().snapshot(from, to);
+    }
+
+    /**
+     * Get a fresh matrix whose {@code from}/{@code to} snapshot is stored in rate_snapshots,
+     * so a simulation can reference it
+     * @return Matrix whose snapshot for the pair has a non-null id
+     */
+    public RateMatrix getRecordedRateMatrix(CurrencyCode from, CurrencyCode to) {
+        RateMatrix matrix = getRateMatrix();
+        RateSnapshot snapshot = matrix.snapshot(from, to);
+        if (snapshot.id() != null) {
+            return matrix;
+        }
+        // Recording failed when the rates were fetched; retry now and let a database error reach the caller
+        RateMatrix recorded = matrix.withSnapshot(from, to, rateHistory.record(from.name(), to.name(), snapshot));
+        rateCache.compareAndSet(matrix, recorded);
+        return recorded;
+    }
+
+    /**
+     * Get the cached snapshot of a pair without ever calling the upstream API
+     * @return Snapshot, or null when no usable matrix is cached
+     */
+    public RateSnapshot getCachedSnapshot(CurrencyCode from, CurrencyCode to) {
+        RateMatrix cached = freshMatrix();
+        return cached != null ? cached.snapshot(from, to) : null;
+    }
+
+    /**
+     * Time until the background refresh is due to replace this snapshot
+     * @return Remaining freshness in milliseconds (never negative)
+     */
+    public long getRemainingFreshnessMs(RateSnapshot snapshot) {
+        return Math.max(0, snapshot.asOf().toEpochMilli() + refreshIntervalMs - System.currentTimeMillis());
+    }
+
+    /**
+     * Register a callback for every newly fetched matrix. It runs on the thread that fetched it,
+     * so it must return quickly.
+     */
+    public void addRateListener(Consumer<RateMatrix> listener) {
+        rateListeners.add(listener);
+    }
+
+    /**
+     * Refresh the matrix in the background so request threads normally hit the cache.
+     * A failed refresh keeps the previous matrix until it exceeds the maximum staleness.
+     */
+    @Scheduled(fixedDelayString = "${exchange.rate.refresh-interval-ms:60000}")
+    public void refreshRates() {
+        try {
+            upstreamCalls.execute(baseCurrency, this::fetchAndCache);
+        } catch (RuntimeException e) {
+            logger.warn("Background refresh of {} rates failed, keeping cached rates: {}", baseCurrency, e.getMessage());
+        }
+    }
+
+    private RateMatrix freshMatrix() {
+        RateMatrix cached = rateCache.get();
+        return cached != null && cached.isFresh(maxStalenessMs, System.currentTimeMillis()) ? cached : null;
+    }
+
+    private RateMatrix staleMatrix() {
+        RateMatrix cached = rateCache.get();
+        return cached != null && cached.isFresh(staleBudgetMs, System.currentTimeMillis()) ? cached : null;
+    }
+
+    private RateMatrix fetchAndCache() {
+        RateMatrix matrix = fetchMatrix();
+        // Store the rate of every corridor once, so simulations can reference it
+        for (Corridor corridor : corridors) {
+            if (!matrix.hasRate(corridor.source(), corridor.target())) {
+                logger.warn("Upstream {} table has no rate for {}", baseCurrency, corridor);
+                continue;
+            }
+            RateSnapshot recorded = record(corridor, matrix.snapshot(corridor.source(), corridor.target()));
+            if (recorded.id() != null) {
+                matrix = matrix.withSnapshot(corridor.source(), corridor.target(), recorded);
+            }
+        }
+        rateCache.set(matrix);
+        for (Consumer<RateMatrix> listener : rateListeners) {
+            try {
+                listener.accept(matrix);
+            } catch (RuntimeException e) {
+                logger.warn("Rate listener failed: {}", e.getMessage());
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Quoting keeps working on an unrecorded snapshot if the database is down
+     */
+    private RateSnapshot record(Corridor corridor, RateSnapshot snapshot) {
+        try {
+            return rateHistory.record(corridor.source().name(), corridor.target().name(), snapshot);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record {} rate snapshot: {}", corridor, e.getMessage());
+            return snapshot;
+        }
+    }
+
+    private RateMatrix fetchMatrix() {
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejected.increment();
+            throw new ServiceUnavailableException("Exchange rate API is unavailable. Please try again later.");
+        }
+
+        long start = System.nanoTime();
+        String outcome = "error";
         try {
-            ExchangeRateResponse response = restTemplate.getForObject(url, ExchangeRateResponse.class);
-            
-            if (response != null && response.isSuccess()) {
-                logger.info("Fetched exchange rate: 1 VND = {} JPY", response.getConversionRate());
-                return response.getConversionRate();
-            } else {
-                String errorType = response != null ? response.getErrorType() : "Unknown error";
-                logger.error("Failed to fetch exchange rate: {}", errorType);
-                throw new RuntimeException("Failed to fetch exchange rate: " + errorType);
+            RateMatrix matrix = client.fetchLatest(baseCurrency);
+            outcome = "success";
+            circuitBreaker.onSuccess();
+            return matrix;
+        } catch (Throwable e) {
+            // Errors too: a half-open probe that reported nothing would leave the circuit half-open for good
+            circuitBreaker.onFailure();
+            if (!circuitBreaker.isClosed()) {
+                logger.warn("Exchange rate API circuit is {} after: {}", circuitBreaker.getState(), e.getMessage());
             }
-        } catch (Exception e) {
-            logger.error("Error fetching exchange rate from API", e);
-            throw new RuntimeException("Unable to fetch exchange rate. Please try again later.", e);
+            throw e;
+        } finally {
+            Timer.builder("exchange.rate.upstream")
+                    .description("Latency of exchange rate API calls")
+                    .tags("base", baseCurrency.name(), "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 }
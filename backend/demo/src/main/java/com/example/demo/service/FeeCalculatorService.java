@@ -1,14 +1,28 @@
 package com.example.demo.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class FeeCalculatorService {
 
+    private final FeeSchedule schedule;
+    private final String feeStructureText;
+
+    /**
+     * @param minAmountJpy Minimum transfer amount in JPY
+     * @param tiers        Fee tiers as "max:fee" pairs, see {@link FeeSchedule#parse(long, String)}
+     */
+    public FeeCalculatorService(@Value("${fee.min-amount-jpy:100}") long minAmountJpy,
+                                @Value("${fee.tiers:10000:100,50000:400,100000:700,unlimited:1000}") String tiers) {
+        this.schedule = FeeSchedule.parse(minAmountJpy, tiers);
+        this.feeStructureText = describe(schedule);
+    }
+
     /**
      * Calculate transfer fee based on the amount in JPY
      * 
-     * Fee structure:
+     * Default fee structure (fee.tiers):
      * ¥100 - ¥10,000     → ¥100
      * ¥10,001 - ¥50,000  → ¥400
      * ¥50,001 - ¥100,000 → ¥700
@@ -18,19 +32,23 @@ public class FeeCalculatorService {
      * @return The fee in JPY
      */
     public int calculateFee(long amountJpy) {
-        if (amountJpy < 100) {
-            throw new IllegalArgumentException("Minimum transfer amount is ¥100");
-        }
-        
-        if (amountJpy <= 10_000) {
-            return 100;
-        } else if (amountJpy <= 50_000) {
-            return 400;
-        } else if (amountJpy <= 100_000) {
-            return 700;
-        } else {
-            return 1000;
+        if (amountJpy < schedule.getMinAmount()) {
+            throw new IllegalArgumentException("Minimum transfer amount is ¥" + schedule.getMinAmount());
         }
+        return schedule.feeFor(amountJpy);
+    }
+
+    /**
+     * Calculate the total amount to send so that {@code netAmountJpy} remains after the fee
+     * @param netAmountJpy The amount in JPY that must be converted
+     * @return The total amount in JPY (net amount + fee)
+     */
+    public long calculateGrossAmount(long netAmountJpy) {
+        return schedule.grossForNet(netAmountJpy);
+    }
+
+    public FeeSchedule getSchedule() {
+        return schedule;
     }
 
     /**
@@ -38,12 +56,17 @@ public class FeeCalculatorService {
      * @return Fee structure as a formatted string
      */
     public String getFeeStructure() {
-        return """
-            Fee Structure:
-            ¥100 - ¥10,000     → ¥100
-            ¥10,001 - ¥50,000  → ¥400
-            ¥50,001 - ¥100,000 → ¥700
-            > ¥100,000         → ¥1,000
-            """;
+        return feeStructureText;
+    }
+
+    private static String describe(FeeSchedule schedule) {
+        StringBuilder text = new StringBuilder("Fee Structure:\n");
+        for (FeeSchedule.Tier tier : schedule.getTiers()) {
+            String range = tier.isUnlimited()
+                    ? String.format("> ¥%,d", tier.minAmount() - 1)
+                    : String.format("¥%,d - ¥%,d", tier.minAmount(), tier.maxAmount());
+            text.append(String.format("%-19s→ ¥%,d\n", range, tier.fee()));
+        }
+        return text.toString();
     }
 }
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable tiered fee table.
+ * Tier lookup is a binary search over primitive upper bounds, and the VND_INPUT inverse
+ * (net amount → gross amount) is a second binary search, so neither allocates nor iterates
+ * over fee guesses.
+ *
+ * Configured as "max:fee" pairs in ascending order, the last tier being "unlimited", e.g.
+ * {@code 10000:100,50000:400,100000:700,unlimited:1000}.
+ */
+public final class FeeSchedule {
+
+    public static final String UNLIMITED = "unlimited";
+
+    /**
+     * One fee tier; {@code maxAmount} is {@link Long#MAX_VALUE} for the unlimited tier
+     */
+    public record Tier(long minAmount, long maxAmount, int fee) {
+
+        public boolean isUnlimited() {
+            return maxAmount == Long.MAX_VALUE;
+        }
+    }
+
+    private final long minAmount;
+    private final long[] upperBounds;     // inclusive, strictly ascending
+    private final int[] fees;             // non-decreasing
+    private final long[] maxNetAmounts;   // running max of (upperBound - fee), for the inverse lookup
+    private final List<Tier> tiers;
+
+    private FeeSchedule(long minAmount, long[] upperBounds, int[] fees) {
+        if (upperBounds.length == 0) {
+            throw new IllegalArgumentException("Fee schedule needs at least one tier");
+        }
+        if (upperBounds[upperBounds.length - 1] != Long.MAX_VALUE) {
+            throw new IllegalArgumentException("The last fee tier must be '" + UNLIMITED + "'");
+        }
+
+        this.minAmount = minAmount;
+        this.upperBounds = upperBounds;
+        this.fees = fees;
+        this.maxNetAmounts = new long[upperBounds.length];
+
+        List<Tier> tierList = new ArrayList<>(upperBounds.length);
+        long lower = minAmount;
+        for (int i = 0; i < upperBounds.length; i++) {
+            if (upperBounds[i] < lower) {
+                throw new IllegalArgumentException("Fee tier bounds must be ascending and above the minimum amount");
+            }
+            if (fees[i] < 0 || (i > 0 && fees[i] < fees[i - 1])) {
+                // Non-decreasing fees guarantee every net amount maps to exactly one smallest gross amount
+                throw new IllegalArgumentException("Fees must be non-negative and non-decreasing across tiers");
+            }
+            long maxNet = upperBounds[i] - fees[i];
+            maxNetAmounts[i] = i == 0 ? maxNet : Math.max(maxNet, maxNetAmounts[i - 1]);
+            tierList.add(new Tier(lower, upperBounds[i], fees[i]));
+            lower = upperBounds[i] + 1;
+        }
+        this.tiers = List.copyOf(tierList);
+    }
+
+    /**
+     * Parse a schedule from configuration
+     * @param minAmount Minimum transfer amount in JPY
+     * @param spec      Comma-separated "max:fee" tiers in ascending order, the last one "unlimited:fee"
+     */
+    public static FeeSchedule parse(long minAmount, String spec) {
+        String[] entries = spec.split(",");
+        long[] upperBounds = new long[entries.length];
+        int[] fees = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid fee tier '" + entries[i] + "', expected max:fee");
+            }
+            String max = parts[0].trim().toLowerCase(Locale.ROOT);
+            upperBounds[i] = UNLIMITED.equals(max) ? Long.MAX_VALUE : Long.parseLong(max);
+            fees[i] = Integer.parseInt(parts[1].trim());
+        }
+        return new FeeSchedule(minAmount, upperBounds, fees);
+    }
+
+    public long getMinAmount() {
+        return minAmount;
+    }
+
+    public List<Tier> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Index of the tier containing {@code amount}; the caller must have checked the minimum amount
+     */
+    public int tierIndex(long amount) {
+        return firstAtLeast(upperBounds, amount);
+    }
+
+    public int feeFor(long amount) {
+        return fees[tierIndex(amount)];
+    }
+
+    /**
+     * Closed-form inverse of the fee function.
+     * Returns the smallest gross amount whose net amount (gross - fee) equals {@code netAmount};
+     * the fee is {@code gross - netAmount}. When tiers overlap in net terms the cheaper tier wins.
+     */
+    public long grossForNet(long netAmount) {
+        int tier = firstAtLeast(maxNetAmounts, netAmount);
+        long gross = Math.addExact(netAmount, fees[tier]);
+        if (gross < minAmount) {
+            throw new IllegalArgumentException("Minimum transfer amount is ¥" + minAmount);
+        }
+        return gross;
+    }
+
+    /**
+     * First index whose value is >= key in a non-decreasing array.
+     * Every schedule ends with Long.MAX_VALUE-based entries, so the result is always in range.
+     */
+    private static int firstAtLeast(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
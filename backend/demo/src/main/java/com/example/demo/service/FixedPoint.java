@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Allocation-free fixed-point arithmetic for currency conversion.
+ * Rates are held as scaled longs (e.g. 174.35000000 at scale 8 → 17435000000) and amounts are
+ * whole currency units, so a conversion is {@code amount * scaledRate / 10^scale}. The product is taken
+ * at 128 bits with {@link Math#multiplyHigh}, so large amounts never overflow silently.
+ *
+ * Rounding matches {@code BigDecimal.setScale(0, RoundingMode.DOWN / UP)} for non-negative values.
+ */
+public final class FixedPoint {
+
+    /**
+     * Largest supported scale: keeps the divisor below 2^47 for the 16-bit limb division
+     */
+    public static final int MAX_SCALE = 14;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        long power = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private FixedPoint() {}
+
+    /**
+     * Convert a decimal to its scaled long representation
+     * @throws ArithmeticException if the value has more than {@code scale} decimal places or does not fit
+     */
+    public static long toScaled(BigDecimal value, int scale) {
+        checkScale(scale);
+        return value.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    /**
+     * {@code amount * scaledRate / 10^scale}, rounded towards zero (RoundingMode.DOWN)
+     */
+    public static long multiplyDown(long amount, long scaledRate, int scale) {
+        checkScale(scale);
+        return multiplyDivide(amount, scaledRate, POWERS_OF_TEN[scale], false);
+    }
+
+    /**
+     * {@code amount * scaledRate / 10^scale}, rounded away from zero (RoundingMode.UP)
+     */
+    public static long multiplyUp(long amount, long scaledRate, int scale) {
+        checkScale(scale);
+        return multiplyDivide(amount, scaledRate, POWERS_OF_TEN[scale], true);
+    }
+
+    /**
+     * floor or ceil of {@code a * b / divisor} for non-negative operands, using a 128-bit product
+     */
+    static long multiplyDivide(long a, long b, long divisor, boolean roundUp) {
+        if (a < 0 || b < 0) {
+            throw new IllegalArgumentException("Fixed-point conversion requires non-negative operands");
+        }
+
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (high == 0 && low >= 0) {
+            // Product fits in 63 bits
+            long quotient = low / divisor;
+            return roundUp && quotient * divisor != low ? quotient + 1 : quotient;
+        }
+
+        // Schoolbook division of the 128-bit product by 16-bit limbs, most significant first.
+        // remainder < divisor < 2^47, so (remainder << 16 | limb) always fits in a long.
+        long remainder = 0;
+        long quotientHigh = 0;
+        long quotientLow = 0;
+        for (int shift = 112; shift >= 0; shift -= 16) {
+            long limb = shift >= 64 ? (high >>> (shift - 64)) & 0xFFFF : (low >>> shift) & 0xFFFF;
+            long current = (remainder << 16) | limb;
+            long digit = current / divisor;
+            remainder = current - digit * divisor;
+            quotientHigh = (quotientHigh << 16) | (quotientLow >>> 48);
+            quotientLow = (quotientLow << 16) | digit;
+        }
+
+        if (quotientHigh != 0 || quotientLow < 0) {
+            throw new ArithmeticException("Fixed-point conversion overflow");
+        }
+        return roundUp && remainder != 0 ? Math.addExact(quotientLow, 1) : quotientLow;
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported fixed-point scale: " + scale);
+        }
+    }
+}
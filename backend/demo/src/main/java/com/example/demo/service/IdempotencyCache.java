@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Results of idempotent requests, kept for a while by key.
+ * Like {@link SingleFlight}, a duplicate arriving while the first call is in flight waits for and
+ * shares its outcome; unlike it, a successful result stays cached for the TTL, so a retry gets the
+ * same value without running the loader again. Failures are not cached: the key may be retried.
+ *
+ * Expired entries are swept once the map exceeds its capacity, at most once per sweep interval.
+ * Results that still do not fit are returned but not retained.
+ */
+final class IdempotencyCache<V> {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private record Entry<V>(String fingerprint, CompletableFuture<V> result, long createdAtNanos) {
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos;
+
+    IdempotencyCache(long ttlMs, int maxEntries) {
+        this(ttlMs, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyCache(long ttlMs, int maxEntries, LongSupplier nanoClock) {
+        if (ttlMs <= 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("TTL and capacity must be positive");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.lastSweepNanos = new AtomicLong(nanoClock.getAsLong() - SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * Return the result stored for the key, wait for the call in flight for it, or run the loader.
+     *
+     * @param fingerprint Identifies the request; reusing a key for a different request is rejected
+     * @throws IllegalArgumentException if the key was used with another fingerprint
+     */
+    V execute(String key, String fingerprint, Supplier<V> loader) {
+        long now = nanoClock.getAsLong();
+        Entry<V> entry = new Entry<>(fingerprint, new CompletableFuture<>(), now);
+        while (true) {
+            Entry<V> existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (isExpired(existing, now)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            return await(existing.result());
+        }
+
+        try {
+            V value = loader.get();
+            entry.result().complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too: an entry never completed would block its waiters forever and never expire.
+            // Removed before completing, so a waiter that retries runs the loader again
+            entries.remove(key, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            if (entries.size() > maxEntries) {
+                sweep(nanoClock.getAsLong());
+                if (entries.size() > maxEntries) {
+                    entries.remove(key, entry);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        // An entry in flight is never expired: its duplicates must keep waiting for it
+        return entry.result().isDone() && now - entry.createdAtNanos() >= ttlNanos;
+    }
+
+    private void sweep(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        entries.values().removeIf(entry -> isExpired(entry, now));
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RateHistoryEntry;
+import com.example.demo.entity.ExchangeRateSnapshot;
+import com.example.demo.repository.ExchangeRateSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Stores every fetched exchange rate once in rate_snapshots.
+ * Simulations reference the row by its INT id instead of repeating the DECIMAL rate,
+ * and the table doubles as the history of quoted rates.
+ */
+@Service
+public class RateHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateHistoryService.class);
+
+    public static final int MAX_HISTORY_ENTRIES = 1000;
+
+    private final ExchangeRateSnapshotRepository repository;
+
+    public RateHistoryService(ExchangeRateSnapshotRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Insert the snapshot and return it with the generated id
+     */
+    public RateSnapshot record(String base, String quote, RateSnapshot snapshot) {
+        // Stored in the JVM zone, like transfer_simulations.created_at
+        LocalDateTime fetchedAt = LocalDateTime.ofInstant(snapshot.asOf(), ZoneId.systemDefault());
+        ExchangeRateSnapshot saved = repository.save(
+                new ExchangeRateSnapshot(base, quote, snapshot.rate(), fetchedAt));
+        logger.debug("Recorded rate snapshot ID: {} ({}/{} = {})", saved.getId(), base, quote, snapshot.rate());
+        return snapshot.withId(saved.getId());
+    }
+
+    /**
+     * Rates fetched for a pair in [from, to), oldest first, at most {@value #MAX_HISTORY_ENTRIES} entries
+     */
+    @Transactional(readOnly = true)
+    public List<RateHistoryEntry> getHistory(String base, String quote, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return repository.findHistory(base, quote, from, to, Limit.of(MAX_HISTORY_ENTRIES));
+    }
+}
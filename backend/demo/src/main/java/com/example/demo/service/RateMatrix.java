@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable table of every supported currency against one base currency, loaded from a single
+ * upstream "latest" call. Rates are held in an array indexed by {@link CurrencyCode} ordinal, and
+ * the {@link RateSnapshot} of every pair (cross rates included) is built once when the matrix is
+ * created, so a lookup is two array reads and never allocates. Cross rates are divided in
+ * BigDecimal to {@link RateSnapshot#SIGNIFICANT_DIGITS} significant digits, never through double.
+ * Instances are published through an atomic reference, so readers never lock.
+ */
+public final class RateMatrix {
+
+    private static final CurrencyCode[] CURRENCIES = CurrencyCode.values();
+
+    private final CurrencyCode base;
+    private final Instant asOf;
+    private final RateSnapshot[] snapshots;   // [from * n + to], null on the diagonal and for missing currencies
+
+    private RateMatrix(CurrencyCode base, Instant asOf, RateSnapshot[] snapshots) {
+        this.base = base;
+        this.asOf = asOf;
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Build the matrix from an upstream conversion table; currencies that are not supported are ignored
+     * @param rates Units of each currency per 1 {@code base}
+     */
+    public static RateMatrix of(CurrencyCode base, Map<String, BigDecimal> rates, Instant asOf) {
+        BigDecimal[] perBase = new BigDecimal[CURRENCIES.length]; // null if not quoted
+        for (CurrencyCode currency : CURRENCIES) {
+            BigDecimal rate = currency == base ? BigDecimal.ONE : rates.get(currency.name());
+            perBase[currency.ordinal()] = rate != null && rate.signum() > 0 ? rate : null;
+        }
+
+        int n = CURRENCIES.length;
+        RateSnapshot[] snapshots = new RateSnapshot[n * n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                if (from != to && perBase[from] != null && perBase[to] != null) {
+                    // A direct rate divides by one and keeps its exact upstream value
+                    BigDecimal cross = from == base.ordinal()
+                            ? perBase[to]
+                            : perBase[to].divide(perBase[from], RateSnapshot.RATE_CONTEXT);
+                    snapshots[from * n + to] = RateSnapshot.of(cross, asOf);
+                }
+            }
+        }
+        return new RateMatrix(base, asOf, snapshots);
+    }
+
+    /**
+     * Whether both currencies were quoted, so the pair has a snapshot
+     */
+    public boolean hasRate(CurrencyCode from, CurrencyCode to) {
+        return from != to && snapshots[index(from, to)] != null;
+    }
+
+    /**
+     * Snapshot of one pair, both directions from this matrix
+     * @throws IllegalArgumentException if both currencies are the same
+     * @throws IllegalStateException if the upstream table did not quote one of the currencies
+     */
+    public RateSnapshot snapshot(CurrencyCode from, CurrencyCode to) {
+        if (from == to) {
+            throw new IllegalArgumentException("Source and target currency must differ");
+        }
+        RateSnapshot snapshot = snapshots[index(from, to)];
+        if (snapshot == null) {
+            throw new IllegalStateException("No exchange rate available for " + from + "/" + to);
+        }
+        return snapshot;
+    }
+
+    /**
+     * The same matrix with one pair's snapshot replaced, e.g. by its recorded copy
+     */
+    public RateMatrix withSnapshot(CurrencyCode from, CurrencyCode to, RateSnapshot snapshot) {
+        RateSnapshot[] copy = snapshots.clone();
+        copy[index(from, to)] = snapshot;
+        return new RateMatrix(base, asOf, copy);
+    }
+
+    public CurrencyCode getBase() {
+        return base;
+    }
+
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    public boolean isFresh(long maxAgeMs, long nowMs) {
+        return asOf.toEpochMilli() + maxAgeMs > nowMs;
+    }
+
+    private static int index(CurrencyCode from, CurrencyCode to) {
+        return from.ordinal() * CURRENCIES.length + to.ordinal();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * Immutable, consistent view of one currency pair in both directions.
+ * Built once per upstream fetch: the inverse rate is derived locally instead of being
+ * fetched separately, so both directions always come from the same moment.
+ * Both rates are also kept as scaled longs for the allocation-free {@link FixedPoint} quote path.
+ * Instances are published through a concurrent map, so readers never lock.
+ *
+ * @param id                 ID of the stored rate_snapshots row, or null until the snapshot is recorded
+ * @param rate               Exchange rate (1 base = ? target), see {@link #round(BigDecimal)}
+ * @param inverseRate        Inverse exchange rate (1 target = ? base), see {@link #round(BigDecimal)}
+ * @param asOf               Time the rate was fetched from the upstream API
+ * @param scaledRate         {@code rate} × 10^{@code rateScale}
+ * @param rateScale          Decimal places of {@code rate}
+ * @param scaledInverseRate  {@code inverseRate} × 10^{@code inverseScale}
+ * @param inverseScale       Decimal places of {@code inverseRate}
+ */
+public record RateSnapshot(Integer id, BigDecimal rate, BigDecimal inverseRate, Instant asOf,
+                           long scaledRate, int rateScale, long scaledInverseRate, int inverseScale) {
+
+    /**
+     * Significant digits kept for a rate. Upstream rates normally carry fewer and are quoted exactly
+     * as received; derived inverse and cross rates are rounded to it.
+     */
+    public static final int SIGNIFICANT_DIGITS = 12;
+
+    /**
+     * Precision for dividing rates, e.g. deriving an inverse or a cross rate
+     */
+    public static final MathContext RATE_CONTEXT = new MathContext(SIGNIFICANT_DIGITS, RoundingMode.HALF_UP);
+
+    /**
+     * Most decimal places kept: the {@link FixedPoint} limit and the rate_snapshots.rate DECIMAL(26, 14)
+     * scale. A rate as small as 0.0001 still keeps 11 significant digits.
+     */
+    public static final int MAX_SCALE = FixedPoint.MAX_SCALE;
+
+    /**
+     * Fewest decimal places a rate is written with; padding with zeros never changes a quote
+     */
+    public static final int MIN_SCALE = 8;
+
+    /**
+     * @throws ArithmeticException if the rate rounds to zero or is too large for the fixed-point path
+     */
+    public static RateSnapshot of(BigDecimal upstreamRate, Instant asOf) {
+        BigDecimal rate = round(upstreamRate);
+        BigDecimal inverseRate = round(BigDecimal.ONE.divide(rate, RATE_CONTEXT));
+        return new RateSnapshot(null, rate, inverseRate, asOf,
+                FixedPoint.toScaled(rate, rate.scale()), rate.scale(),
+                FixedPoint.toScaled(inverseRate, inverseRate.scale()), inverseRate.scale());
+    }
+
+    /**
+     * A rate at the precision it is quoted with: at most {@value #SIGNIFICANT_DIGITS} significant
+     * digits and {@value #MAX_SCALE} decimal places, rounded half up, and written with at least
+     * {@value #MIN_SCALE} decimal places. A rate within those limits keeps its exact value.
+     */
+    public static BigDecimal round(BigDecimal rate) {
+        BigDecimal rounded = rate.round(RATE_CONTEXT).stripTrailingZeros();
+        if (rounded.scale() > MAX_SCALE) {
+            rounded = rounded.setScale(MAX_SCALE, RoundingMode.HALF_UP);
+        }
+        if (rounded.signum() == 0) {
+            throw new ArithmeticException("Exchange rate is too small to quote: " + rate);
+        }
+        return rounded.scale() < MIN_SCALE ? rounded.setScale(MIN_SCALE) : rounded;
+    }
+
+    /**
+     * The same snapshot, identified by its rate_snapshots row
+     */
+    public RateSnapshot withId(int id) {
+        return new RateSnapshot(id, rate, inverseRate, asOf, scaledRate, rateScale, scaledInverseRate, inverseScale);
+    }
+
+    public boolean isFresh(long maxAgeMs, long nowMs) {
+        return asOf.toEpochMilli() + maxAgeMs > nowMs;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-your-own-writes guard for the read replica.
+ * Remembers which clients saved a simulation within the lag window; their history reads go to the
+ * primary until the replica has had time to catch up. State is per instance, which is enough as
+ * long as a client's follow-up reads reach the instance that served its write.
+ */
+@Service
+public class ReplicationLagGuard {
+
+    // Expired entries are swept once the map grows past this many clients
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    public ReplicationLagGuard(@Value("${simulation.read-your-writes.window-ms:2000}") long windowMs) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+
+    public void recordWrite(String client) {
+        if (client == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWriteNanos.put(client, now);
+        if (lastWriteNanos.size() > SWEEP_THRESHOLD) {
+            lastWriteNanos.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    /**
+     * Whether the client wrote recently enough that the replica may not show it yet
+     */
+    public boolean requiresPrimary(String client) {
+        if (client == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteNanos.get(client);
+        return writtenAt != null && System.nanoTime() - writtenAt < windowNanos;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous audit trail (client IP, user agent) for saved simulations.
+ * Request threads only enqueue; a background writer stores records in simulation_audit with
+ * multi-row INSERTs. The queue is bounded and drops its oldest record when full, so audit volume
+ * never slows down or fails /simulate; every dropped record is counted.
+ */
+@Service
+public class SimulationAuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationAuditWriter.class);
+
+    private static final int MAX_USER_AGENT_LENGTH = 255;
+
+    private static final String INSERT_PREFIX =
+            "INSERT IGNORE INTO simulation_audit (simulation_id, created_at, client_ip, user_agent) VALUES ";
+    private static final String VALUES_ROW = "(?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BackgroundBatcher<AuditRecord> batcher;
+
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+
+    public SimulationAuditWriter(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${simulation.audit.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${simulation.audit.batch-size:500}") int batchSize,
+                                 @Value("${simulation.audit.flush-interval-ms:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batcher = new BackgroundBatcher<>("simulation-audit-writer", queueCapacity, batchSize, flushIntervalMs, this::flush);
+        this.flushTimer = Timer.builder("simulation.audit.flush")
+                .description("Time to insert one batch of audit records")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("simulation.audit.dropped")
+                .description("Audit records discarded because the queue was full or the insert failed")
+                .register(meterRegistry);
+        Gauge.builder("simulation.audit.queue.depth", batcher, BackgroundBatcher::size)
+                .description("Audit records waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        batcher.start();
+    }
+
+    /**
+     * Write what is still queued before the datasource closes
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        List<AuditRecord> unwritten = batcher.stop(TimeUnit.SECONDS.toMillis(10));
+        if (!unwritten.isEmpty()) {
+            logger.warn("Audit writer stopped with {} records still queued", unwritten.size());
+            droppedCounter.increment(unwritten.size());
+        }
+    }
+
+    /**
+     * Queue the audit record of a saved simulation; never blocks
+     */
+    public void record(long simulationId, LocalDateTime createdAt, String clientIp, String userAgent) {
+        AuditRecord record = new AuditRecord(simulationId, createdAt, clientIp, userAgent);
+        try {
+            // Full: make room by discarding the oldest record rather than delaying the request
+            batcher.offerDroppingOldest(record, dropped -> droppedCounter.increment());
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the simulation is saved, only its audit record is lost
+            droppedCounter.increment();
+        }
+    }
+
+    private void flush(List<AuditRecord> batch) {
+        String sql = BackgroundBatcher.multiRowInsert(INSERT_PREFIX, VALUES_ROW, batch.size());
+
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                int index = 1;
+                for (AuditRecord record : batch) {
+                    ps.setLong(index++, record.simulationId());
+                    ps.setTimestamp(index++, Timestamp.valueOf(record.createdAt()));
+                    ps.setString(index++, record.clientIp());
+                    ps.setString(index++, truncateUserAgent(record.userAgent()));
+                }
+                return ps;
+            });
+        } catch (RuntimeException e) {
+            // Audit is best effort: count the loss instead of retrying and backing up the queue
+            logger.error("Failed to write {} audit records", batch.size(), e);
+            droppedCounter.increment(batch.size());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String truncateUserAgent(String userAgent) {
+        if (userAgent == null) return null;
+        return userAgent.length() > MAX_USER_AGENT_LENGTH ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent;
+    }
+
+    private record AuditRecord(long simulationId, LocalDateTime createdAt, String clientIp, String userAgent) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.TransferSimulation;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.OutcomeUnknownException;
+import com.example.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional write-behind path for new simulations.
+ * Request threads enqueue rows into a bounded queue; a single background writer flushes them
+ * as multi-row INSERTs when a batch fills or the flush interval elapses, so many requests share
+ * one round trip and one commit. Callers still receive the generated id once their batch commits.
+ * The Idempotency-Key claims of a batch's rows are completed in the same transaction as its INSERT.
+ *
+ * A caller that gives up waiting cancels its row if the writer has not taken it yet, so a 503
+ * always means "not saved". Once the writer has taken the row, the caller gets
+ * {@link OutcomeUnknownException} instead: the insert may still commit.
+ */
+@Service
+public class SimulationBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationBatchWriter.class);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO transfer_simulations (created_at, source_currency, target_currency, send_amount, " +
+            "receive_amount, fee, rate_snapshot_id, input_mode) VALUES ";
+    private static final String VALUES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimulationIdempotencyService idempotencyService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${simulation.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${simulation.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${simulation.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${simulation.write-behind.flush-interval-ms:10}")
+    private long flushIntervalMs;
+
+    @Value("${simulation.write-behind.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${simulation.write-behind.commit-timeout-ms:5000}")
+    private long commitTimeoutMs;
+
+    private BackgroundBatcher<PendingSimulation> batcher;
+
+    private Timer flushTimer;
+    private Counter rejectedCounter;
+
+    public SimulationBatchWriter(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 SimulationIdempotencyService idempotencyService,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idempotencyService = idempotencyService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        batcher = new BackgroundBatcher<>("simulation-batch-writer", queueCapacity, batchSize, flushIntervalMs, this::flush);
+        flushTimer = Timer.builder("simulation.write_behind.flush")
+                .description("Time to insert and commit one write-behind batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("simulation.write_behind.rejected")
+                .description("Simulations rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        Gauge.builder("simulation.write_behind.queue.depth", batcher, BackgroundBatcher::size)
+                .description("Simulations waiting to be flushed")
+                .register(meterRegistry);
+
+        batcher.start();
+        logger.info("Write-behind persistence enabled (capacity: {}, batch size: {}, flush interval: {} ms)",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Stop accepting rows and drain everything already queued before the datasource closes
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        List<PendingSimulation> unwritten = batcher.stop(TimeUnit.SECONDS.toMillis(30));
+
+        // The writer did not drain in time: fail what it never took, so those callers know it was not saved
+        int cancelled = 0;
+        for (PendingSimulation pending : unwritten) {
+            if (pending.cancel()) {
+                pending.id().completeExceptionally(
+                        new ServiceUnavailableException("Simulation writer is shutting down. Please try again later."));
+                cancelled++;
+            }
+        }
+        if (cancelled > 0) {
+            logger.error("Write-behind writer stopped with {} simulations not saved", cancelled);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a simulation and wait until its batch is committed
+     * @param claim Idempotency-Key claim to complete in the same transaction, or null
+     * @return Generated simulation ID
+     * @throws ServiceUnavailableException if the simulation was not saved: the queue stayed full, or
+     *                                     it was cancelled before the writer took it
+     * @throws OutcomeUnknownException     if its batch did not commit in time but may still commit
+     * @throws ConflictException           if the claim was taken over; the simulation was not saved
+     */
+    public long write(TransferSimulation simulation, SimulationIdempotencyService.Claim claim) {
+        PendingSimulation pending = new PendingSimulation(simulation, claim);
+        try {
+            enqueue(pending);
+            return pending.id().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw giveUp(pending, "Interrupted while saving simulation", e);
+        } catch (TimeoutException e) {
+            throw giveUp(pending, "Timed out saving simulation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServiceUnavailableException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof ConflictException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to save simulation", e.getCause());
+        }
+    }
+
+    private void enqueue(PendingSimulation pending) throws InterruptedException {
+        boolean queued;
+        try {
+            queued = batcher.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Simulation writer is shutting down. Please try again later.");
+        }
+        if (!queued) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many simulations in progress. Please try again later.");
+        }
+    }
+
+    /**
+     * Withdraw a row the caller stopped waiting for, if the writer has not taken it yet
+     */
+    private RuntimeException giveUp(PendingSimulation pending, String reason, Exception cause) {
+        if (pending.cancel()) {
+            batcher.remove(pending);
+            return new ServiceUnavailableException(reason + "; it was not saved. Please try again later.", cause);
+        }
+        return new OutcomeUnknownException(reason + "; it may still be saved. "
+                + "Check the history or retry with the same Idempotency-Key.", cause);
+    }
+
+    private void flush(List<PendingSimulation> batch) {
+        // From here on a caller that times out can no longer withdraw its row
+        batch.removeIf(pending -> !pending.take());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingSimulation> lost = new ArrayList<>();
+        List<Long> ids;
+        long start = System.nanoTime();
+        try {
+            ids = transactionTemplate.execute(status -> insert(batch, lost));
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush {} simulations", batch.size(), e);
+            batch.forEach(pending -> pending.id().completeExceptionally(e));
+            return;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).id().complete(ids.get(i));
+        }
+        lost.forEach(pending -> pending.id().completeExceptionally(SimulationIdempotencyService.claimLost()));
+        logger.debug("Flushed {} simulations", batch.size());
+    }
+
+    /**
+     * Insert the batch and complete the Idempotency-Key claims of its rows, in the caller's transaction.
+     * Rows whose claim was taken over are moved from the batch to {@code lost} and not inserted.
+     * @return Generated ids, in batch order
+     */
+    private List<Long> insert(List<PendingSimulation> batch, List<PendingSimulation> lost) {
+        List<SimulationIdempotencyService.Claim> claims = new ArrayList<>();
+        for (PendingSimulation pending : batch) {
+            if (pending.claim() != null) {
+                claims.add(pending.claim());
+            }
+        }
+        if (!claims.isEmpty()) {
+            Set<String> held = idempotencyService.lockClaims(claims);
+            batch.removeIf(pending -> pending.claim() != null && !held.contains(pending.claim().key())
+                    && lost.add(pending));
+            if (batch.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        String sql = BackgroundBatcher.multiRowInsert(INSERT_PREFIX, VALUES_ROW, batch.size());
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            int index = 1;
+            for (PendingSimulation pending : batch) {
+                TransferSimulation simulation = pending.simulation();
+                ps.setTimestamp(index++, Timestamp.valueOf(simulation.getCreatedAt()));
+                ps.setString(index++, simulation.getSourceCurrency());
+                ps.setString(index++, simulation.getTargetCurrency());
+                ps.setLong(index++, simulation.getSendAmount());
+                ps.setLong(index++, simulation.getReceiveAmount());
+                ps.setInt(index++, simulation.getFee());
+                ps.setInt(index++, simulation.getRateSnapshotId());
+                ps.setString(index++, simulation.getInputMode().name());
+            }
+            return ps;
+        }, keyHolder);
+
+        // MySQL returns one generated key per inserted row, in VALUES order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Long> ids = new ArrayList<>(batch.size());
+        List<SimulationIdempotencyService.Claim> completed = new ArrayList<>();
+        List<Long> completedIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            long id = ((Number) keys.get(i).values().iterator().next()).longValue();
+            ids.add(id);
+            if (batch.get(i).claim() != null) {
+                completed.add(batch.get(i).claim());
+                completedIds.add(id);
+            }
+        }
+        if (!completed.isEmpty()) {
+            idempotencyService.complete(completed, completedIds);
+        }
+        return ids;
+    }
+
+    private record PendingSimulation(TransferSimulation simulation, SimulationIdempotencyService.Claim claim,
+                                     CompletableFuture<Long> id, AtomicInteger state) {
+
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int CANCELLED = 2;
+
+        PendingSimulation(TransferSimulation simulation, SimulationIdempotencyService.Claim claim) {
+            this(simulation, claim, new CompletableFuture<>(), new AtomicInteger(QUEUED));
+        }
+
+        /**
+         * Writer side: claim the row for the next INSERT
+         * @return false if the caller already withdrew it
+         */
+        boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        /**
+         * Caller side: withdraw the row
+         * @return false if the writer already took it
+         */
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+}
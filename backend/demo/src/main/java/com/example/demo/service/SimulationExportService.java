@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the simulation history straight from a forward-only JDBC cursor to an output stream.
+ * Rows are written as they arrive and never collected, so heap use does not depend on table size.
+ */
+@Service
+public class SimulationExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationExportService.class);
+
+    // STRAIGHT_JOIN keeps transfer_simulations as the driving table, so the scan still follows
+    // idx_created_at and each rate is a primary key lookup into the small rate_snapshots table
+    private static final String EXPORT_COLUMNS =
+            "SELECT s.id, s.created_at, s.source_currency, s.target_currency, s.send_amount, s.receive_amount, " +
+            "s.fee, r.rate, s.input_mode " +
+            "FROM transfer_simulations s STRAIGHT_JOIN rate_snapshots r ON r.id = s.rate_snapshot_id";
+
+    private static final String CSV_HEADER =
+            "id,created_at,source_currency,target_currency,send_amount,receive_amount,fee,rate,input_mode\n";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromParam(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public SimulationExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write simulations created in [from, to] (inclusive days, both optional) in creation order.
+     * Read-only, so the export streams from the read replica when one is configured.
+     */
+    @Transactional(readOnly = true)
+    public void export(Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(EXPORT_COLUMNS);
+        List<Timestamp> params = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" s.created_at >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" s.created_at < ?");
+            params.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        // Follows idx_created_at, so MySQL streams without a filesort
+        sql.append(" ORDER BY s.created_at, s.id");
+
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] rows = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J: stream rows one at a time instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setTimestamp(i + 1, params.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                writer.write(rs);
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.finish();
+        logger.info("Exported {} simulations as {} (from: {}, to: {})", rows[0], format, from, to);
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("created_at", formatCreatedAt(rs));
+            generator.writeStringField("source_currency", rs.getString("source_currency"));
+            generator.writeStringField("target_currency", rs.getString("target_currency"));
+            generator.writeNumberField("send_amount", rs.getLong("send_amount"));
+            generator.writeNumberField("receive_amount", rs.getLong("receive_amount"));
+            generator.writeNumberField("fee", rs.getInt("fee"));
+            generator.writeNumberField("rate", rs.getBigDecimal("rate"));
+            generator.writeStringField("input_mode", rs.getString("input_mode"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            // Every column is numeric, an ISO timestamp, a currency code or an enum name, so no quoting is needed
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            writer.write(formatCreatedAt(rs));
+            writer.write(',');
+            writer.write(rs.getString("source_currency"));
+            writer.write(',');
+            writer.write(rs.getString("target_currency"));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong("send_amount")));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong("receive_amount")));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt("fee")));
+            writer.write(',');
+            writer.write(rs.getBigDecimal("rate").toPlainString());
+            writer.write(',');
+            writer.write(rs.getString("input_mode"));
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String formatCreatedAt(ResultSet rs) throws SQLException {
+        LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt);
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SimulationRequest;
+import com.example.demo.dto.SimulationResponse;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.OutcomeUnknownException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Idempotency-Key handling for POST /simulate: a retried request returns the simulation created
+ * by the first one instead of quoting and inserting again.
+ *
+ * Keys are claimed in simulation_idempotency, whose primary key makes the claim unique across
+ * instances and restarts. The simulation id is filled in by the transaction that inserts the
+ * simulation, after it has locked the claim and checked it is still its own, so a simulation is never
+ * saved without completing its claim, nor for a claim that was taken over. A bounded in-memory cache
+ * in front of it answers retries on the same instance without a query and lets a concurrent duplicate
+ * wait for the first request. A duplicate whose first request is still running on another instance
+ * gets 409 Conflict; a claim left unfinished by a crashed instance can be taken over after the
+ * in-progress timeout.
+ */
+@Service
+public class SimulationIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationIdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyCache<SimulationResponse> cache;
+    private final long inProgressTimeoutMs;
+
+    @Value("${simulation.idempotency.retention-hours:24}")
+    private int retentionHours;
+
+    @Value("${simulation.idempotency.cleanup-chunk-size:5000}")
+    private int cleanupChunkSize;
+
+    public SimulationIdempotencyService(JdbcTemplate jdbcTemplate,
+                                        @Value("${simulation.idempotency.cache-ttl-ms:600000}") long cacheTtlMs,
+                                        @Value("${simulation.idempotency.cache-max-entries:100000}") int cacheMaxEntries,
+                                        @Value("${simulation.idempotency.in-progress-timeout-ms:60000}") long inProgressTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = new IdempotencyCache<>(cacheTtlMs, cacheMaxEntries);
+        this.inProgressTimeoutMs = inProgressTimeoutMs;
+    }
+
+    /**
+     * Run {@code create} at most once per key. The request must already be validated.
+     *
+     * @param create Creates and saves the simulation, completing the claim in the same transaction,
+     *               see {@link #lockClaims(List)} and {@link #complete(List, List)}
+     * @param load   Loads a simulation saved earlier under the same key, by id
+     * @throws IllegalArgumentException if the key is malformed or was used for a different request
+     * @throws ConflictException        if the key's first request is still in progress elsewhere
+     */
+    public SimulationResponse execute(String key, SimulationRequest request,
+                                      Function<Claim, SimulationResponse> create,
+                                      LongFunction<SimulationResponse> load) {
+        validateKey(key);
+        String fingerprint = fingerprint(request);
+        return cache.execute(key, fingerprint, () -> claimAndCreate(key, fingerprint, create, load));
+    }
+
+    /**
+     * Delete keys older than the retention period, one chunk per statement
+     */
+    @Scheduled(fixedDelayString = "${simulation.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM simulation_idempotency WHERE created_at < ? LIMIT ?", cutoff, cleanupChunkSize);
+            } while (deleted == cleanupChunkSize);
+        } catch (RuntimeException e) {
+            logger.warn("Idempotency key cleanup failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lock the rows of these claims until the current transaction ends.
+     * Call it in the transaction that saves their simulations, before inserting them.
+     * @return Keys still held by these claims; the others were released or taken over in the meantime
+     */
+    Set<String> lockClaims(List<Claim> claims) {
+        if (claims.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(claims.size(), "?"));
+        Map<String, LocalDateTime> claimedAt = jdbcTemplate.query(
+                "SELECT idempotency_key, created_at FROM simulation_idempotency " +
+                "WHERE idempotency_key IN (" + placeholders + ") AND simulation_id IS NULL FOR UPDATE",
+                rs -> {
+                    Map<String, LocalDateTime> rows = new HashMap<>();
+                    while (rs.next()) {
+                        rows.put(rs.getString("idempotency_key"), rs.getTimestamp("created_at").toLocalDateTime());
+                    }
+                    return rows;
+                },
+                claims.stream().map(Claim::key).toArray());
+        Set<String> held = new HashSet<>();
+        for (Claim claim : claims) {
+            if (claim.claimedAt().equals(claimedAt.get(claim.key()))) {
+                held.add(claim.key());
+            }
+        }
+        return held;
+    }
+
+    /**
+     * {@link #lockClaims(List)} for one claim
+     * @throws ConflictException if the claim is no longer held
+     */
+    void lockClaim(Claim claim) {
+        if (lockClaims(List.of(claim)).isEmpty()) {
+            throw claimLost();
+        }
+    }
+
+    /**
+     * Record the simulation saved for each claim, in the transaction that inserted it and after locking the claims
+     */
+    void complete(List<Claim> claims, List<Long> simulationIds) {
+        List<Object[]> args = new ArrayList<>(claims.size());
+        for (int i = 0; i < claims.size(); i++) {
+            args.add(new Object[] {simulationIds.get(i), claims.get(i).key()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE simulation_idempotency SET simulation_id = ? WHERE idempotency_key = ?", args);
+    }
+
+    static ConflictException claimLost() {
+        return new ConflictException("Another request with this Idempotency-Key took over; retry to get its result");
+    }
+
+    private SimulationResponse claimAndCreate(String key, String fingerprint,
+                                              Function<Claim, SimulationResponse> create,
+                                              LongFunction<SimulationResponse> load) {
+        // DATETIME keeps whole seconds; the claim time read back must equal this one
+        Claim claim = new Claim(key, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        Long existingId = claim(claim, fingerprint);
+        if (existingId != null) {
+            logger.debug("Idempotency-Key {} replays simulation ID: {}", key, existingId);
+            return load.apply(existingId);
+        }
+
+        try {
+            return create.apply(claim);
+        } catch (OutcomeUnknownException e) {
+            // The simulation may still commit, completing the claim with it: a retry must replay it, not create
+            // another. Until then retries get 409, and after the in-progress timeout they may take the claim over.
+            throw e;
+        } catch (RuntimeException e) {
+            // Rolled back together with the claim completion, so nothing was saved
+            release(claim);
+            throw e;
+        }
+    }
+
+    /**
+     * Claim the key for this request
+     * @return null if claimed, otherwise the id of the simulation already created for it
+     */
+    private Long claim(Claim claim, String fingerprint) {
+        String key = claim.key();
+        LocalDateTime now = claim.claimedAt();
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO simulation_idempotency (idempotency_key, request_fingerprint, created_at) " +
+                    "VALUES (?, ?, ?)", key, fingerprint, Timestamp.valueOf(now));
+            return null;
+        } catch (DuplicateKeyException e) {
+            // Claimed before: by a finished request, one still in progress, or one that never finished
+        }
+
+        List<StoredKey> stored = jdbcTemplate.query(
+                "SELECT request_fingerprint, simulation_id FROM simulation_idempotency WHERE idempotency_key = ?",
+                (rs, rowNum) -> new StoredKey(rs.getString("request_fingerprint"),
+                        rs.getObject("simulation_id", Long.class)),
+                key);
+        if (stored.isEmpty()) {
+            // Released or purged in the meantime
+            return claim(claim, fingerprint);
+        }
+        StoredKey existing = stored.get(0);
+        if (!existing.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+        if (existing.simulationId() != null) {
+            return existing.simulationId();
+        }
+
+        Timestamp abandonedBefore = Timestamp.valueOf(now.minus(inProgressTimeoutMs, ChronoUnit.MILLIS));
+        int takenOver = jdbcTemplate.update(
+                "UPDATE simulation_idempotency SET created_at = ? WHERE idempotency_key = ? " +
+                "AND simulation_id IS NULL AND created_at < ?",
+                Timestamp.valueOf(now), key, abandonedBefore);
+        if (takenOver == 1) {
+            logger.info("Took over abandoned Idempotency-Key {}", key);
+            return null;
+        }
+        throw new ConflictException("A request with this Idempotency-Key is still being processed");
+    }
+
+    /**
+     * Free the key after a failed attempt, so the client can retry with it, unless another request took it over
+     */
+    private void release(Claim claim) {
+        try {
+            jdbcTemplate.update(
+                    "DELETE FROM simulation_idempotency WHERE idempotency_key = ? AND simulation_id IS NULL " +
+                    "AND created_at = ?", claim.key(), Timestamp.valueOf(claim.claimedAt()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not release Idempotency-Key {}: {}", claim.key(), e.getMessage());
+        }
+    }
+
+    private static void validateKey(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters long");
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '!' || c > '~') {
+                throw new IllegalArgumentException("Idempotency-Key must consist of printable ASCII characters");
+            }
+        }
+    }
+
+    /**
+     * The fields that determine the quote; a retry must repeat them
+     */
+    private static String fingerprint(SimulationRequest request) {
+        long amount = request.getInputMode() == SimulationRequest.InputMode.JPY_INPUT
+                ? request.getSendAmount()
+                : request.getReceiveAmount();
+        return request.getSourceCurrency() + ":" + request.getTargetCurrency() + ":"
+                + request.getInputMode() + ":" + amount;
+    }
+
+    private record StoredKey(String fingerprint, Long simulationId) {
+    }
+
+    /**
+     * One request's claim of a key; the claim time tells it apart from a later takeover of the same key
+     */
+    public record Claim(String key, LocalDateTime claimedAt) {
+    }
+}
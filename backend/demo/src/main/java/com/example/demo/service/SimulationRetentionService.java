@@ -0,0 +1,225 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retention for transfer_simulations and simulation_audit, both range-partitioned by month on created_at.
+ *
+ * Partition {@code pYYYYMM} holds rows created before the first day of the following month, and a
+ * trailing {@code pmax} partition catches anything later. A daily job keeps monthly partitions
+ * created ahead of time, copies partitions that are entirely older than the retention period into
+ * the compressed transfer_simulations_archive table, and then removes them with
+ * {@code ALTER TABLE ... DROP PARTITION}: a metadata operation instead of row-by-row deletes,
+ * so the hot table stays bounded without purge load on the primary. Audit partitions follow the
+ * same schedule but are dropped without archiving.
+ *
+ * Retention deletes data from the hot tables, so it is off unless enabled, and all of its DDL runs in
+ * the scheduled job: starting the application never alters a table.
+ */
+@Service
+public class SimulationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationRetentionService.class);
+
+    private static final String TABLE = "transfer_simulations";
+    private static final String AUDIT_TABLE = "simulation_audit";
+    private static final String MAX_PARTITION = "pmax";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String ARCHIVE_COLUMNS =
+            "id, created_at, source_currency, target_currency, send_amount, receive_amount, fee, " +
+            "rate_snapshot_id, input_mode";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimulationStatsService statsService;
+    private final Counter archivedRows;
+
+    @Value("${simulation.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${simulation.retention.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${simulation.retention.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${simulation.retention.archive-chunk-size:5000}")
+    private int archiveChunkSize;
+
+    public SimulationRetentionService(JdbcTemplate jdbcTemplate,
+                                      SimulationStatsService statsService,
+                                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsService = statsService;
+        this.archivedRows = Counter.builder("simulation.retention.archived")
+                .description("Simulations copied to the archive before their partition was dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create upcoming partitions, then archive and drop the expired ones
+     */
+    @Scheduled(cron = "${simulation.retention.cron:0 30 3 * * *}")
+    public void applyRetention() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        try {
+            List<Partition> partitions = listPartitions(TABLE);
+            if (!partitions.isEmpty()) {
+                ensureFuturePartitions(TABLE, partitions);
+                for (Partition partition : partitions) {
+                    // Oldest first; a partition expires once all of its rows are older than the cutoff
+                    if (!isExpired(partition, cutoff) || !archiveAndDrop(partition)) {
+                        break;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Simulation retention run failed", e);
+        }
+
+        try {
+            List<Partition> partitions = listPartitions(AUDIT_TABLE);
+            if (!partitions.isEmpty()) {
+                ensureFuturePartitions(AUDIT_TABLE, partitions);
+                for (Partition partition : partitions) {
+                    if (!isExpired(partition, cutoff)) {
+                        break;
+                    }
+                    jdbcTemplate.execute("ALTER TABLE " + AUDIT_TABLE + " DROP PARTITION " + partition.name());
+                    logger.info("Dropped audit partition {}", partition.name());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Audit retention run failed", e);
+        }
+    }
+
+    private static boolean isExpired(Partition partition, LocalDate cutoff) {
+        return partition.upperBound() != null && !partition.upperBound().isAfter(cutoff);
+    }
+
+    /**
+     * Copy one expired partition to the archive in id-ordered chunks, verify it, then drop it.
+     * Re-running after a failure is safe: rows already archived are skipped.
+     * @return false if the partition was kept, which also stops newer partitions from being dropped
+     */
+    private boolean archiveAndDrop(Partition partition) {
+        String source = TABLE + " PARTITION (" + partition.name() + ")";
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + source, Long.class);
+        if (maxId != null && maxId > statsService.getRolledUpThroughId()) {
+            logger.warn("Keeping partition {}: daily stats have not rolled it up yet", partition.name());
+            return false;
+        }
+
+        long copied = 0;
+        long lastId = 0;
+        while (true) {
+            Long chunkEnd = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM (SELECT id FROM " + source + " WHERE id > ? ORDER BY id LIMIT ?) AS chunk",
+                    Long.class, lastId, archiveChunkSize);
+            if (chunkEnd == null) {
+                break;
+            }
+            // Each chunk commits on its own, so no long transaction holds the partition
+            copied += jdbcTemplate.update(
+                    "INSERT IGNORE INTO transfer_simulations_archive (" + ARCHIVE_COLUMNS + ") " +
+                    "SELECT " + ARCHIVE_COLUMNS + " FROM " + source + " WHERE id > ? AND id <= ?",
+                    lastId, chunkEnd);
+            lastId = chunkEnd;
+        }
+        archivedRows.increment(copied);
+
+        long missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + source + " s " +
+                "LEFT JOIN transfer_simulations_archive a ON a.id = s.id WHERE a.id IS NULL", Long.class);
+        if (missing > 0) {
+            logger.error("Keeping partition {}: {} of its simulations are missing from the archive",
+                    partition.name(), missing);
+            return false;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition.name());
+        logger.info("Archived and dropped partition {} ({} simulations newly archived)", partition.name(), copied);
+        return true;
+    }
+
+    /**
+     * Split pmax so that monthly partitions exist through {@code monthsAhead} months from now.
+     * On a table that only has pmax, everything before the current month goes into one partition.
+     */
+    private void ensureFuturePartitions(String table, List<Partition> partitions) {
+        if (partitions.isEmpty() || partitions.stream().noneMatch(p -> MAX_PARTITION.equals(p.name()))) {
+            logger.warn("{} has no {} partition to split; retention is inactive", table, MAX_PARTITION);
+            return;
+        }
+
+        YearMonth lastPartitioned = null;
+        for (Partition partition : partitions) {
+            if (partition.upperBound() != null) {
+                lastPartitioned = YearMonth.from(partition.upperBound()).minusMonths(1);
+            }
+        }
+        YearMonth through = YearMonth.now().plusMonths(monthsAhead);
+        YearMonth next = lastPartitioned != null ? lastPartitioned.plusMonths(1) : YearMonth.now().minusMonths(1);
+        if (next.isAfter(through)) {
+            return;
+        }
+
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = next; !month.isAfter(through); month = month.plusMonths(1)) {
+            definitions.add("PARTITION p" + month.format(PARTITION_MONTH) +
+                    " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + " 00:00:00')");
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + MAX_PARTITION +
+                " INTO (" + String.join(", ", definitions) + ")");
+        logger.info("Created {} {} partitions p{} through p{}", definitions.size() - 1, table,
+                next.format(PARTITION_MONTH), through.format(PARTITION_MONTH));
+    }
+
+    /**
+     * Partitions in range order; empty if the table is not partitioned
+     */
+    private List<Partition> listPartitions(String table) {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION",
+                rs -> {
+                    String name = rs.getString("PARTITION_NAME");
+                    Matcher monthly = MONTHLY_PARTITION.matcher(name);
+                    LocalDate upperBound = monthly.matches()
+                            ? YearMonth.parse(monthly.group(1), PARTITION_MONTH).plusMonths(1).atDay(1)
+                            : null;
+                    partitions.add(new Partition(name, upperBound));
+                },
+                table);
+        return partitions;
+    }
+
+    /**
+     * @param upperBound Exclusive upper bound of created_at, null for pmax
+     */
+    private record Partition(String name, LocalDate upperBound) {
+    }
+}
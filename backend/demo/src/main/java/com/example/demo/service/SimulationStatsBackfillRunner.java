@@ -0,0 +1,44 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off command that rebuilds the daily stats rollup from existing simulations and exits:
+ * {@code java -jar demo.jar --simulation.stats.backfill=true --spring.main.web-application-type=none}
+ */
+@Component
+@ConditionalOnProperty(name = "simulation.stats.backfill", havingValue = "true")
+public class SimulationStatsBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationStatsBackfillRunner.class);
+
+    private final SimulationStatsService statsService;
+    private final ConfigurableApplicationContext context;
+
+    public SimulationStatsBackfillRunner(SimulationStatsService statsService, ConfigurableApplicationContext context) {
+        this.statsService = statsService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        logger.info("Backfilling daily simulation stats");
+        int exitCode = 0;
+        try {
+            statsService.backfill();
+            logger.info("Daily simulation stats backfill complete");
+        } catch (RuntimeException e) {
+            logger.error("Daily simulation stats backfill failed", e);
+            exitCode = 1;
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DailyStatsResponse;
+import com.example.demo.dto.FeeTierCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily simulation analytics from the simulation_daily_stats rollup (corridor × day × fee × input mode).
+ *
+ * A tailing job folds new transfer_simulations rows into the rollup, tracking the last
+ * rolled-up id as a high-water mark in rollup_progress. Each chunk is a primary key range scan,
+ * and the stats endpoint never reads transfer_simulations.
+ *
+ * Ids are assigned at insert time but may commit slightly out of order, so the job only rolls up
+ * rows older than the settle delay; a lower id cannot still be uncommitted by then.
+ */
+@Service
+public class SimulationStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationStatsService.class);
+
+    public static final int MAX_STATS_DAYS = 366;
+
+    private static final String ROLLUP_NAME = "simulation_daily_stats";
+
+    // The derived table lets ON DUPLICATE KEY UPDATE add the chunk's aggregates to an existing row
+    private static final String ROLLUP_CHUNK =
+            "INSERT INTO simulation_daily_stats (source_currency, target_currency, day, fee, input_mode, " +
+            "simulation_count, total_send, total_fee, total_receive) " +
+            "SELECT * FROM (" +
+            "SELECT source_currency, target_currency, DATE(created_at) AS day, fee, input_mode, " +
+            "COUNT(*) AS simulation_count, SUM(send_amount) AS total_send, SUM(fee) AS total_fee, " +
+            "SUM(receive_amount) AS total_receive " +
+            "FROM %s WHERE id > ? AND id <= ? " +
+            "GROUP BY source_currency, target_currency, DATE(created_at), fee, input_mode) AS chunk " +
+            "ON DUPLICATE KEY UPDATE " +
+            "simulation_count = simulation_daily_stats.simulation_count + chunk.simulation_count, " +
+            "total_send = simulation_daily_stats.total_send + chunk.total_send, " +
+            "total_fee = simulation_daily_stats.total_fee + chunk.total_fee, " +
+            "total_receive = simulation_daily_stats.total_receive + chunk.total_receive";
+
+    private static final String ROLLUP_LIVE_CHUNK = String.format(ROLLUP_CHUNK, "transfer_simulations");
+    private static final String ROLLUP_ARCHIVE_CHUNK = String.format(ROLLUP_CHUNK, "transfer_simulations_archive");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, Integer> tierByFee = new HashMap<>();
+
+    @Value("${simulation.stats.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${simulation.stats.settle-delay-ms:30000}")
+    private long settleDelayMs;
+
+    @Value("${simulation.stats.max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    public SimulationStatsService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  FeeCalculatorService feeCalculatorService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        List<FeeSchedule.Tier> tiers = feeCalculatorService.getSchedule().getTiers();
+        for (int i = 0; i < tiers.size(); i++) {
+            tierByFee.putIfAbsent(tiers.get(i).fee(), i);
+        }
+    }
+
+    /**
+     * Fold settled simulations created since the last run into the rollup, at most
+     * {@code max-chunks-per-run} chunks, so a large backlog does not hold the scheduler thread;
+     * the next run continues from the high-water mark.
+     */
+    @Scheduled(fixedDelayString = "${simulation.stats.rollup-interval-ms:10000}")
+    public void rollUp() {
+        try {
+            int chunks = 0;
+            while (chunks < maxChunksPerRun && rollUpChunk()) {
+                chunks++;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Daily stats rollup failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the rollup from transfer_simulations and transfer_simulations_archive, one chunk per
+     * transaction. Only days that still have simulations in either table are rebuilt; older days,
+     * whose rows are gone, keep their stats.
+     *
+     * The high-water mark is moved to the highest archived id, so archived ids are counted from the
+     * archive and everything after them from transfer_simulations, including by a rollup running
+     * meanwhile. Retention only drops partitions the mark has passed, so no row is counted twice or lost.
+     */
+    public void backfill() {
+        long archivedThroughId = transactionTemplate.execute(status -> {
+            // Holding the progress row lock keeps a concurrent rollup from interleaving with the reset
+            lockHighWaterMark();
+            Long maxArchivedId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM transfer_simulations_archive", Long.class);
+            Date firstDay = jdbcTemplate.queryForObject(
+                    "SELECT DATE(LEAST(COALESCE((SELECT MIN(created_at) FROM transfer_simulations_archive), NOW()), " +
+                    "COALESCE((SELECT MIN(created_at) FROM transfer_simulations), NOW())))", Date.class);
+            int deleted = jdbcTemplate.update("DELETE FROM simulation_daily_stats WHERE day >= ?", firstDay);
+            long markId = maxArchivedId != null ? maxArchivedId : 0;
+            jdbcTemplate.update("UPDATE rollup_progress SET last_id = ? WHERE name = ?", markId, ROLLUP_NAME);
+            logger.info("Rebuilding daily stats from {} ({} rows cleared)", firstDay, deleted);
+            return markId;
+        });
+
+        long lastId = 0;
+        while (lastId < archivedThroughId) {
+            Long chunkEnd = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM (SELECT id FROM transfer_simulations_archive " +
+                    "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?) AS chunk",
+                    Long.class, lastId, archivedThroughId, chunkSize);
+            if (chunkEnd == null) {
+                break;
+            }
+            jdbcTemplate.update(ROLLUP_ARCHIVE_CHUNK, lastId, chunkEnd);
+            lastId = chunkEnd;
+            logger.info("Daily stats backfilled through archived simulation ID {}", lastId);
+        }
+
+        while (rollUpChunk()) {
+            logger.info("Daily stats backfilled through simulation ID {}", getRolledUpThroughId());
+        }
+    }
+
+    /**
+     * Daily totals of one corridor in [from, to] (inclusive), oldest first; days without simulations
+     * are omitted. Amounts and fees are in the corridor's own currencies.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyStatsResponse> getDailyStats(CurrencyCode source, CurrencyCode target,
+                                                  LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (from.plusDays(MAX_STATS_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Stats cover at most " + MAX_STATS_DAYS + " days per request");
+        }
+
+        Map<LocalDate, DailyStatsResponse> days = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT day, fee, input_mode, simulation_count, total_send, total_fee, total_receive " +
+                "FROM simulation_daily_stats WHERE source_currency = ? AND target_currency = ? " +
+                "AND day BETWEEN ? AND ? ORDER BY day, fee, input_mode",
+                rs -> {
+                    LocalDate day = rs.getDate("day").toLocalDate();
+                    DailyStatsResponse stats = days.computeIfAbsent(day, DailyStatsResponse::new);
+                    int fee = rs.getInt("fee");
+                    long count = rs.getLong("simulation_count");
+
+                    stats.setSimulationCount(stats.getSimulationCount() + count);
+                    stats.setTotalSend(stats.getTotalSend() + rs.getLong("total_send"));
+                    stats.setTotalFee(stats.getTotalFee() + rs.getLong("total_fee"));
+                    stats.setTotalReceive(stats.getTotalReceive() + rs.getLong("total_receive"));
+                    stats.getInputModes().merge(rs.getString("input_mode"), count, Long::sum);
+
+                    // Rows are ordered by fee within a day, so a tier's rows are adjacent
+                    List<FeeTierCount> feeTiers = stats.getFeeTiers();
+                    FeeTierCount last = feeTiers.isEmpty() ? null : feeTiers.get(feeTiers.size() - 1);
+                    if (last != null && last.getFee() == fee) {
+                        last.setCount(last.getCount() + count);
+                    } else {
+                        // The schedule is in JPY; fees of other source currencies are converted amounts
+                        Integer tier = source == CurrencyCode.JPY ? tierByFee.get(fee) : null;
+                        feeTiers.add(new FeeTierCount(fee, tier, count));
+                    }
+                },
+                source.name(), target.name(), Date.valueOf(from), Date.valueOf(to));
+        return List.copyOf(days.values());
+    }
+
+    /**
+     * Highest simulation id already folded into the rollup
+     */
+    public long getRolledUpThroughId() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_id FROM rollup_progress WHERE name = ?", Long.class, ROLLUP_NAME);
+    }
+
+    /**
+     * Roll up the next range of settled ids and advance the high-water mark, in one transaction
+     * @return true if rows were rolled up, false when caught up
+     */
+    private boolean rollUpChunk() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            long lastId = lockHighWaterMark();
+            long upTo = settledUpperBound(lastId);
+            if (upTo <= lastId) {
+                return false;
+            }
+            jdbcTemplate.update(ROLLUP_LIVE_CHUNK, lastId, upTo);
+            jdbcTemplate.update("UPDATE rollup_progress SET last_id = ? WHERE name = ?", upTo, ROLLUP_NAME);
+            return true;
+        }));
+    }
+
+    private long lockHighWaterMark() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_id FROM rollup_progress WHERE name = ? FOR UPDATE", Long.class, ROLLUP_NAME);
+    }
+
+    /**
+     * Highest id that can be rolled up: at most one chunk past the next existing id (so gaps in the
+     * id sequence are skipped), and below the first row still inside the settle delay
+     */
+    private long settledUpperBound(long lastId) {
+        Long nextId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM transfer_simulations WHERE id > ?", Long.class, lastId);
+        if (nextId == null) {
+            return lastId;
+        }
+        long chunkEnd = nextId + chunkSize - 1;
+        Timestamp settledBefore = Timestamp.valueOf(LocalDateTime.now().minus(settleDelayMs, ChronoUnit.MILLIS));
+        Long firstUnsettled = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM transfer_simulations WHERE id > ? AND id <= ? AND created_at >= ?",
+                Long.class, lastId, chunkEnd, settledBefore);
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM transfer_simulations WHERE id > ? AND id <= ?", Long.class, lastId, chunkEnd);
+        return firstUnsettled != null ? Math.min(maxId, firstUnsettled - 1) : maxId;
+    }
+}
@@ -1,136 +1,389 @@
 package com.example.demo.service;
 
+import com.example.demo.admission.AdaptiveConcurrencyLimit;
+import com.example.demo.config.ReadReplicaRoutingDataSource;
+import com.example.demo.dto.BatchPreviewResult;
 import com.example.demo.dto.CalculationPreviewResponse;
+import com.example.demo.dto.SimulationPageResponse;
 import com.example.demo.dto.SimulationRequest;
 import com.example.demo.dto.SimulationResponse;
 import com.example.demo.entity.TransferSimulation;
 import com.example.demo.repository.TransferSimulationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TransferSimulationService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransferSimulationService.class);
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = "_";
+    public static final String AMOUNT_OUT_OF_RANGE = "Amount is out of range";
+
     private final TransferSimulationRepository repository;
     private final ExchangeRateService exchangeRateService;
     private final FeeCalculatorService feeCalculatorService;
+    private final SimulationBatchWriter batchWriter;
+    private final ReplicationLagGuard lagGuard;
+    private final SimulationAuditWriter auditWriter;
+    private final AdaptiveConcurrencyLimit simulateConcurrency;
+    private final SimulationIdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer previewTimer;
+    private final Timer directSaveTimer;
+    private final Timer writeBehindSaveTimer;
+    private final Counter[] feeTierCounters; // indexed by fee tier
 
     public TransferSimulationService(TransferSimulationRepository repository,
                                      ExchangeRateService exchangeRateService,
-                                     FeeCalculatorService feeCalculatorService) {
+                                     FeeCalculatorService feeCalculatorService,
+                                     SimulationBatchWriter batchWriter,
+                                     ReplicationLagGuard lagGuard,
+                                     SimulationAuditWriter auditWriter,
+                                     AdaptiveConcurrencyLimit simulateConcurrency,
+                                     SimulationIdempotencyService idempotencyService,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
         this.repository = repository;
         this.exchangeRateService = exchangeRateService;
         this.feeCalculatorService = feeCalculatorService;
+        this.batchWriter = batchWriter;
+        this.lagGuard = lagGuard;
+        this.auditWriter = auditWriter;
+        this.simulateConcurrency = simulateConcurrency;
+        this.idempotencyService = idempotencyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.previewTimer = Timer.builder("transfer.preview")
+                .description("Time to quote a transfer, including the exchange rate lookup")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.directSaveTimer = saveTimer(meterRegistry, "direct");
+        this.writeBehindSaveTimer = saveTimer(meterRegistry, "write_behind");
+
+        List<FeeSchedule.Tier> tiers = feeCalculatorService.getSchedule().getTiers();
+        this.feeTierCounters = new Counter[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            feeTierCounters[i] = Counter.builder("transfer.fee.tier")
+                    .description("Quotes per fee tier")
+                    .tags("tier", String.valueOf(i), "fee", String.valueOf(tiers.get(i).fee()))
+                    .register(meterRegistry);
+        }
     }
 
     /**
      * Preview calculation without saving
      */
     public CalculationPreviewResponse previewCalculation(SimulationRequest request) {
-        // Validate request based on input mode
-        request.validate();
-        
-        BigDecimal jpyToVndRate = exchangeRateService.getJpyToVndRate();
-        
-        long sendAmountJpy;
-        long receiveAmountVnd;
-        int feeJpy;
-        long netAmountJpy;
+        long start = System.nanoTime();
+        try {
+            // Validate request based on input mode
+            request.validate();
+
+            exchangeRateService.requireCorridor(request.getSourceCurrency(), request.getTargetCurrency());
+
+            return previewCalculation(request, exchangeRateService.getRateMatrix());
+        } finally {
+            previewTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Preview many requests against a single rate matrix, so every quote uses rates from the same moment.
+     * Results keep the request order; an invalid request yields an error entry instead of
+     * failing the whole batch.
+     */
+    public List<BatchPreviewResult> previewBatch(List<SimulationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one request is required");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch can contain at most " + MAX_BATCH_SIZE + " requests");
+        }
+
+        RateMatrix rates = exchangeRateService.getRateMatrix();
+        List<BatchPreviewResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SimulationRequest request = requests.get(i);
+            if (request == null) {
+                results.add(BatchPreviewResult.failure(i, "Request is required"));
+                continue;
+            }
+            try {
+                request.validate();
+                exchangeRateService.requireCorridor(request.getSourceCurrency(), request.getTargetCurrency());
+                results.add(BatchPreviewResult.success(i, previewCalculation(request, rates)));
+            } catch (IllegalArgumentException e) {
+                results.add(BatchPreviewResult.failure(i, e.getMessage()));
+            } catch (ArithmeticException e) {
+                // An amount so large that the fixed-point conversion or the fee overflows
+                results.add(BatchPreviewResult.failure(i, AMOUNT_OUT_OF_RANGE));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Price a validated request against one rate matrix, so the quote never mixes rates
+     * from different moments and costs at most one upstream call.
+     *
+     * The fee schedule is in JPY. For another source currency, the tier is chosen by the JPY
+     * equivalent of the amount and its fee is converted back, rounded up to a whole unit.
+     */
+    private CalculationPreviewResponse previewCalculation(SimulationRequest request, RateMatrix rates) {
+        CurrencyCode source = request.getSourceCurrency();
+        RateSnapshot rate = quotedSnapshot(rates, source, request.getTargetCurrency());
+        RateSnapshot toJpy = source == CurrencyCode.JPY ? null : quotedSnapshot(rates, source, CurrencyCode.JPY);
+
+        long sendAmount;
+        long receiveAmount;
+        int fee;
+        long netAmount;
+        long sendAmountJpy; // selects the fee tier
 
         if (request.getInputMode() == SimulationRequest.InputMode.JPY_INPUT) {
-            // User enters JPY amount
-            sendAmountJpy = request.getSendAmountJpy();
-            feeJpy = feeCalculatorService.calculateFee(sendAmountJpy);
-            netAmountJpy = sendAmountJpy - feeJpy;
+            // User enters the amount to send
+            sendAmount = request.getSendAmount();
+            if (toJpy == null) {
+                sendAmountJpy = sendAmount;
+                fee = feeCalculatorService.calculateFee(sendAmount);
+            } else {
+                sendAmountJpy = FixedPoint.multiplyDown(sendAmount, toJpy.scaledRate(), toJpy.rateScale());
+                fee = toSourceFee(feeCalculatorService.calculateFee(sendAmountJpy), toJpy);
+            }
+            netAmount = sendAmount - fee;
             
-            // Convert net JPY to VND
-            receiveAmountVnd = BigDecimal.valueOf(netAmountJpy)
-                    .multiply(jpyToVndRate)
-                    .setScale(0, RoundingMode.DOWN)
-                    .longValue();
+            // Convert the net amount to the target currency (fixed-point, rounded down)
+            receiveAmount = FixedPoint.multiplyDown(netAmount, rate.scaledRate(), rate.rateScale());
         } else {
-            // User enters VND amount they want recipient to receive
-            receiveAmountVnd = request.getReceiveAmountVnd();
+            // User enters the amount the recipient should receive
+            receiveAmount = request.getReceiveAmount();
             
-            // Calculate how much JPY is needed (before fee)
-            BigDecimal vndToJpyRate = exchangeRateService.getVndToJpyRate();
-            netAmountJpy = BigDecimal.valueOf(receiveAmountVnd)
-                    .multiply(vndToJpyRate)
-                    .setScale(0, RoundingMode.UP)
-                    .longValue();
+            // Calculate how much must be converted (before fee) using the snapshot's inverse rate, rounded up
+            netAmount = FixedPoint.multiplyUp(receiveAmount, rate.scaledInverseRate(), rate.inverseScale());
             
-            // Estimate initial fee and iterate to find correct total
-            feeJpy = feeCalculatorService.calculateFee(netAmountJpy + 100); // Initial estimate
-            sendAmountJpy = netAmountJpy + feeJpy;
-            
-            // Recalculate fee based on total amount
-            int newFee = feeCalculatorService.calculateFee(sendAmountJpy);
-            while (newFee != feeJpy) {
-                feeJpy = newFee;
-                sendAmountJpy = netAmountJpy + feeJpy;
-                newFee = feeCalculatorService.calculateFee(sendAmountJpy);
+            // Invert the fee schedule directly: smallest total whose net covers the receive amount
+            if (toJpy == null) {
+                sendAmountJpy = feeCalculatorService.calculateGrossAmount(netAmount);
+                sendAmount = sendAmountJpy;
+                fee = (int) (sendAmount - netAmount);
+            } else {
+                long netAmountJpy = FixedPoint.multiplyUp(netAmount, toJpy.scaledRate(), toJpy.rateScale());
+                sendAmountJpy = feeCalculatorService.calculateGrossAmount(netAmountJpy);
+                fee = toSourceFee((int) (sendAmountJpy - netAmountJpy), toJpy);
+                sendAmount = netAmount + fee;
             }
         }
 
-        return new CalculationPreviewResponse(sendAmountJpy, receiveAmountVnd, feeJpy, jpyToVndRate, netAmountJpy);
+        feeTierCounters[feeCalculatorService.getSchedule().tierIndex(sendAmountJpy)].increment();
+
+        return new CalculationPreviewResponse(source.name(), request.getTargetCurrency().name(), sendAmount,
+                receiveAmount, fee, rate.rate(), netAmount, rates.getAsOf(), exchangeRateService.isStale(rates));
     }
 
     /**
-     * Create and save a new transfer simulation
+     * A currency the upstream table did not quote is reported like any other unquotable request
      */
-    @Transactional
-    public SimulationResponse createSimulation(SimulationRequest request, String clientIp, String userAgent) {
-        CalculationPreviewResponse preview = previewCalculation(request);
+    private static RateSnapshot quotedSnapshot(RateMatrix rates, CurrencyCode from, CurrencyCode to) {
+        try {
+            return rates.snapshot(from, to);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static int toSourceFee(int feeJpy, RateSnapshot sourceToJpy) {
+        return Math.toIntExact(FixedPoint.multiplyUp(feeJpy, sourceToJpy.scaledInverseRate(), sourceToJpy.inverseScale()));
+    }
+
+    /**
+     * Create and save a new transfer simulation.
+     * Not wrapped in a transaction: the single insert commits on its own, so no connection
+     * is held while quoting or while waiting for a write-behind batch. With an idempotency key the
+     * insert shares its transaction with the completion of the key's claim.
+     * Client IP and user agent are not part of the row: they are queued for the asynchronous audit log.
+     *
+     * With an idempotency key, a retry of the same request returns the simulation created by the
+     * first attempt instead of saving another one.
+     *
+     * @param idempotencyKey Client-chosen key of this request, or null
+     */
+    public SimulationResponse createSimulation(SimulationRequest request, String clientIp, String userAgent,
+                                               String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return saveSimulation(request, clientIp, userAgent, null);
+        }
+        request.validate();
+        return idempotencyService.execute(idempotencyKey, request,
+                claim -> saveSimulation(request, clientIp, userAgent, claim),
+                // The first attempt may have been saved moments ago, possibly by another instance
+                id -> ReadReplicaRoutingDataSource.onPrimary(() -> repository.findResponseById(id))
+                        .orElseThrow(() -> new RuntimeException("Simulation not found with ID: " + id)));
+    }
+
+    private SimulationResponse saveSimulation(SimulationRequest request, String clientIp, String userAgent,
+                                              SimulationIdempotencyService.Claim claim) {
+        CalculationPreviewResponse preview;
+        RateSnapshot rate;
+        long quoteStart = System.nanoTime();
+        try {
+            request.validate();
+            CurrencyCode source = request.getSourceCurrency();
+            CurrencyCode target = request.getTargetCurrency();
+            exchangeRateService.requireCorridor(source, target);
+            // The stored simulation references the rate_snapshots row instead of copying the rate
+            RateMatrix rates = exchangeRateService.getRecordedRateMatrix(source, target);
+            rate = quotedSnapshot(rates, source, target);
+            preview = previewCalculation(request, rates);
+        } finally {
+            previewTimer.record(System.nanoTime() - quoteStart, TimeUnit.NANOSECONDS);
+        }
         
         TransferSimulation simulation = new TransferSimulation();
-        simulation.setSendAmountJpy(preview.getSendAmountJpy());
-        simulation.setReceiveAmountVnd(preview.getReceiveAmountVnd());
-        simulation.setFeeJpy(preview.getFeeJpy());
-        simulation.setRateJpyToVnd(preview.getRateJpyToVnd());
+        simulation.setSourceCurrency(preview.getSourceCurrency());
+        simulation.setTargetCurrency(preview.getTargetCurrency());
+        simulation.setSendAmount(preview.getSendAmount());
+        simulation.setReceiveAmount(preview.getReceiveAmount());
+        simulation.setFee(preview.getFee());
+        simulation.setRateSnapshotId(rate.id());
         simulation.setInputMode(mapInputMode(request.getInputMode()));
-        simulation.setClientIp(clientIp);
-        simulation.setUserAgent(truncateUserAgent(userAgent));
 
-        TransferSimulation saved = repository.save(simulation);
-        logger.info("Created simulation ID: {}, JPY: {}, VND: {}, Fee: {}", 
-                saved.getId(), saved.getSendAmountJpy(), saved.getReceiveAmountVnd(), saved.getFeeJpy());
+        TransferSimulation saved;
+        long start = System.nanoTime();
+        try {
+            if (batchWriter.isEnabled()) {
+                simulation.setCreatedAt(LocalDateTime.now());
+                simulation.setId(batchWriter.write(simulation, claim));
+                saved = simulation;
+                writeBehindSaveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                saved = claim == null ? repository.save(simulation) : saveClaimed(simulation, claim);
+                directSaveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            // Failed saves count too: a timed-out save is the clearest sign the database is overloaded
+            simulateConcurrency.recordLatency(System.nanoTime() - start);
+        }
+        lagGuard.recordWrite(clientIp);
+        auditWriter.record(saved.getId(), saved.getCreatedAt(), clientIp, userAgent);
+        logger.info("Created simulation ID: {}, {}: {}, {}: {}, Fee: {}", saved.getId(),
+                saved.getSourceCurrency(), saved.getSendAmount(), saved.getTargetCurrency(), saved.getReceiveAmount(),
+                saved.getFee());
+
+        return mapToResponse(saved, rate.rate());
+    }
+
+    /**
+     * Insert the simulation and complete its Idempotency-Key claim in one transaction
+     * @throws com.example.demo.exception.ConflictException if the claim was taken over, nothing is saved then
+     */
+    private TransferSimulation saveClaimed(TransferSimulation simulation, SimulationIdempotencyService.Claim claim) {
+        return transactionTemplate.execute(status -> {
+            idempotencyService.lockClaim(claim);
+            TransferSimulation saved = repository.save(simulation);
+            idempotencyService.complete(List.of(claim), List.of(saved.getId()));
+            return saved;
+        });
+    }
+
+    /**
+     * Get one page of simulations ordered by creation date (newest first).
+     * Pages are keyed by an opaque (createdAt, id) cursor rather than an offset,
+     * so each page is a bounded index range scan regardless of table size.
+     *
+     * Served by the read replica when one is configured, unless the client has just saved a simulation.
+     *
+     * @param cursor   nextCursor from the previous page, or null for the first page
+     * @param size     requested page size, clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @param clientIp caller, for the read-your-own-writes check
+     */
+    @Transactional(readOnly = true)
+    public SimulationPageResponse getSimulationPage(String cursor, int size, String clientIp) {
+        if (lagGuard.requiresPrimary(clientIp)) {
+            return ReadReplicaRoutingDataSource.onPrimary(() -> loadSimulationPage(cursor, size));
+        }
+        return loadSimulationPage(cursor, size);
+    }
+
+    private SimulationPageResponse loadSimulationPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to learn whether an older page exists
+        Limit limit = Limit.of(pageSize + 1);
 
-        return mapToResponse(saved);
+        List<SimulationResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findLatest(limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = repository.findBefore(LocalDateTime.parse(position[0]), Long.parseLong(position[1]), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new SimulationPageResponse(rows, null);
+        }
+        List<SimulationResponse> page = rows.subList(0, pageSize);
+        return new SimulationPageResponse(page, encodeCursor(page.get(pageSize - 1)));
     }
 
     /**
-     * Get all simulations ordered by creation date (newest first)
+     * Get a specific simulation by ID, from the primary if the client has just saved a simulation
      */
-    public List<SimulationResponse> getAllSimulations() {
-        return repository.findAllByOrderByCreatedAtDesc()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public SimulationResponse getSimulationById(Long id, String clientIp) {
+        Optional<SimulationResponse> simulation = lagGuard.requiresPrimary(clientIp)
+                ? ReadReplicaRoutingDataSource.onPrimary(() -> repository.findResponseById(id))
+                : repository.findResponseById(id);
+        return simulation.orElseThrow(() -> new RuntimeException("Simulation not found with ID: " + id));
     }
 
     /**
-     * Get a specific simulation by ID
+     * Get current exchange rate of a pair
      */
-    public SimulationResponse getSimulationById(Long id) {
-        return repository.findById(id)
-                .map(this::mapToResponse)
-                .orElseThrow(() -> new RuntimeException("Simulation not found with ID: " + id));
+    public RateSnapshot getCurrentExchangeRate(CurrencyCode from, CurrencyCode to) {
+        return exchangeRateService.getSnapshot(from, to);
     }
 
     /**
-     * Get current exchange rate
+     * Get the cached exchange rate of a pair, if still fresh, without calling the upstream API
      */
-    public BigDecimal getCurrentExchangeRate() {
-        return exchangeRateService.getJpyToVndRate();
+    public RateSnapshot getCachedExchangeRate(CurrencyCode from, CurrencyCode to) {
+        return exchangeRateService.getCachedSnapshot(from, to);
+    }
+
+    /**
+     * Milliseconds until the given exchange rate is due to be refreshed
+     */
+    public long getExchangeRateMaxAgeMs(RateSnapshot snapshot) {
+        return exchangeRateService.getRemainingFreshnessMs(snapshot);
+    }
+
+    private static Timer saveTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("transfer.simulation.save")
+                .description("Time to persist a simulation")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     private TransferSimulation.InputMode mapInputMode(SimulationRequest.InputMode mode) {
@@ -140,20 +393,38 @@ public class TransferSimulationService {
         };
     }
 
-    private SimulationResponse mapToResponse(TransferSimulation simulation) {
+    private SimulationResponse mapToResponse(TransferSimulation simulation, BigDecimal rate) {
         return new SimulationResponse(
                 simulation.getId(),
                 simulation.getCreatedAt(),
-                simulation.getSendAmountJpy(),
-                simulation.getReceiveAmountVnd(),
-                simulation.getFeeJpy(),
-                simulation.getRateJpyToVnd(),
+                simulation.getSourceCurrency(),
+                simulation.getTargetCurrency(),
+                simulation.getSendAmount(),
+                simulation.getReceiveAmount(),
+                simulation.getFee(),
+                rate,
                 simulation.getInputMode().name()
         );
     }
 
-    private String truncateUserAgent(String userAgent) {
-        if (userAgent == null) return null;
-        return userAgent.length() > 255 ? userAgent.substring(0, 255) : userAgent;
+    private String encodeCursor(SimulationResponse last) {
+        String position = last.getCreatedAt() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+            // Parse eagerly so a malformed cursor is reported as a bad request
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
     }
 }
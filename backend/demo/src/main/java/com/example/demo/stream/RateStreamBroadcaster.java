@@ -0,0 +1,212 @@
+package com.example.demo.stream;
+
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.service.CurrencyCode;
+import com.example.demo.service.ExchangeRateService;
+import com.example.demo.service.RateMatrix;
+import com.example.demo.service.RateSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes exchange rate changes to Server-Sent Events subscribers, instead of every open page
+ * polling /exchange-rate.
+ *
+ * The broadcaster listens to the rate matrices fetched by {@link ExchangeRateService}. When the rate
+ * of a subscribed pair changes, the event is rendered once and offered to every subscriber of that
+ * pair. Writes happen on virtual sender threads, and only while a subscriber has frames buffered;
+ * an open connection is an async servlet request that holds no thread while idle. A write to a client
+ * that stopped reading blocks until the server's write timeout (server.tomcat.connection-timeout)
+ * fails it and closes the subscriber; meanwhile it holds only its own virtual thread, so the other
+ * subscribers keep receiving updates.
+ * Idle subscribers get a comment line every heartbeat interval, which keeps proxies from closing
+ * the connection and detects clients that went away.
+ */
+@Service
+public class RateStreamBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamBroadcaster.class);
+
+    private static final String HEARTBEAT_FRAME = ":heartbeat\n\n";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferCapacity;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final ExecutorService sender;
+    private final ExecutorService completer;
+
+    private final ConcurrentMap<Pair, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter droppedFrames;
+    private final Counter slowDisconnects;
+
+    public RateStreamBroadcaster(ExchangeRateService exchangeRateService,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${exchange.rate.stream.buffer-capacity:8}") int bufferCapacity,
+                                 @Value("${exchange.rate.stream.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${exchange.rate.stream.max-subscribers:50000}") int maxSubscribers) {
+        if (bufferCapacity < 1 || maxSubscribers < 1) {
+            throw new IllegalArgumentException("Buffer capacity and subscriber limit must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.bufferCapacity = bufferCapacity;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-stream-sender-", 1).factory());
+        // Completing an emitter waits for its write in progress, so it never runs on a broadcast or heartbeat thread
+        this.completer = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-stream-completer-", 1).factory());
+
+        this.droppedFrames = Counter.builder("exchange.rate.stream.dropped")
+                .description("Rate stream frames discarded because a subscriber's buffer was full")
+                .register(meterRegistry);
+        this.slowDisconnects = Counter.builder("exchange.rate.stream.slow_disconnects")
+                .description("Rate stream subscribers disconnected for not keeping up")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rate.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open rate stream connections")
+                .register(meterRegistry);
+
+        exchangeRateService.addRateListener(this::onRates);
+    }
+
+    @PreDestroy
+    void stop() {
+        for (Topic topic : topics.values()) {
+            topic.subscribers.forEach(RateStreamSubscriber::close);
+        }
+        sender.shutdown();
+        completer.shutdown();
+    }
+
+    /**
+     * Open a stream of one pair, starting with its current rate
+     * @throws ServiceUnavailableException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(CurrencyCode base, CurrencyCode target, RateSnapshot current) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open rate streams. Please try again later.");
+        }
+
+        Topic topic = topics.computeIfAbsent(new Pair(base, target), pair -> new Topic());
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        RateStreamSubscriber subscriber = new RateStreamSubscriber(emitter, bufferCapacity, sender, completer, closed -> {
+            topic.subscribers.remove(closed);
+            subscriberCount.decrementAndGet();
+        });
+
+        // Completing on timeout ends the response normally; the EventSource reconnects on its own
+        emitter.onTimeout(subscriber::close);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        topic.subscribers.add(subscriber);
+        offer(subscriber, rateFrame(base, target, current));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Send a heartbeat comment to every subscriber with nothing else to send
+     */
+    @Scheduled(fixedDelayString = "${exchange.rate.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        for (Topic topic : topics.values()) {
+            for (RateStreamSubscriber subscriber : topic.subscribers) {
+                if (subscriber.isIdle()) {
+                    offer(subscriber, HEARTBEAT_FRAME);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called with every fetched matrix; broadcasts the pairs whose rate changed
+     */
+    private void onRates(RateMatrix matrix) {
+        topics.forEach((pair, topic) -> {
+            if (topic.subscribers.isEmpty() || !matrix.hasRate(pair.base(), pair.target())) {
+                return;
+            }
+            RateSnapshot snapshot = matrix.snapshot(pair.base(), pair.target());
+            BigDecimal last = topic.lastRate;
+            if (last != null && last.compareTo(snapshot.rate()) == 0) {
+                return;
+            }
+            topic.lastRate = snapshot.rate();
+
+            String frame = rateFrame(pair.base(), pair.target(), snapshot);
+            for (RateStreamSubscriber subscriber : topic.subscribers) {
+                offer(subscriber, frame);
+            }
+            logger.debug("Broadcast {}/{} = {} to {} subscribers",
+                    pair.base(), pair.target(), snapshot.rate(), topic.subscribers.size());
+        });
+    }
+
+    private void offer(RateStreamSubscriber subscriber, String frame) {
+        switch (subscriber.offer(frame)) {
+            case DROPPED_OLDEST -> droppedFrames.increment();
+            case DISCONNECTED_SLOW -> {
+                droppedFrames.increment();
+                slowDisconnects.increment();
+            }
+            case QUEUED, CLOSED -> {
+                // Nothing to count; a closed subscriber has already left its topic
+            }
+        }
+    }
+
+    /**
+     * A complete "rate" event, rendered once and shared by all subscribers of the pair
+     */
+    private String rateFrame(CurrencyCode base, CurrencyCode target, RateSnapshot snapshot) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("base", base.name());
+        body.put("target", target.name());
+        body.put("rate", snapshot.rate());
+        body.put("as_of", snapshot.asOf());
+        body.put("description", "1 " + base + " = " + snapshot.rate() + " " + target);
+        try {
+            return "id:" + snapshot.asOf().toEpochMilli() + "\nevent:rate\ndata:"
+                    + objectMapper.writeValueAsString(body) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize rate event", e);
+        }
+    }
+
+    private record Pair(CurrencyCode base, CurrencyCode target) {
+    }
+
+    private static final class Topic {
+        final Set<RateStreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // Only written by the thread that fetched the matrix; fetches are single-flight
+        volatile BigDecimal lastRate;
+    }
+}
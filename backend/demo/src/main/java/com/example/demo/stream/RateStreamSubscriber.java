@@ -0,0 +1,157 @@
+package com.example.demo.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One open rate stream with a bounded buffer of pre-rendered SSE frames.
+ * The broadcaster only offers frames and never writes to the connection itself. Buffered frames
+ * are written by a sender task that is scheduled while the buffer is non-empty, so an idle
+ * connection holds no thread. When the buffer is full the oldest frame is dropped: a rate update
+ * supersedes the ones before it. A subscriber that keeps dropping frames without sending any is
+ * considered stuck and disconnected; its EventSource reconnects and starts from the current rate.
+ *
+ * Completing the emitter waits for a write in progress, which lasts until the client reads or the
+ * server's write timeout fails it. So close() only marks the subscriber closed and hands the completion
+ * to a separate executor: the broadcast or heartbeat thread that detects a stuck subscriber never waits on it.
+ */
+final class RateStreamSubscriber {
+
+    enum OfferResult {
+        QUEUED, DROPPED_OLDEST, DISCONNECTED_SLOW, CLOSED
+    }
+
+    // As SseEmitter writes its own text parts: StringHttpMessageConverter defaults to ISO-8859-1
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<String> buffer;
+    private final int maxDrops;
+    private final Executor sender;
+    private final Executor completer;
+    private final Consumer<RateStreamSubscriber> onClose;
+
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicInteger dropsSinceLastSend = new AtomicInteger();
+
+    /**
+     * @param bufferCapacity Frames buffered per subscriber; after as many drops in a row it is disconnected
+     * @param sender         Runs the tasks that write buffered frames
+     * @param completer      Runs the emitter completion after close, which may wait for a blocked write
+     * @param onClose        Called once when the subscriber is closed, for whatever reason
+     */
+    RateStreamSubscriber(SseEmitter emitter, int bufferCapacity, Executor sender, Executor completer,
+                         Consumer<RateStreamSubscriber> onClose) {
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.maxDrops = bufferCapacity;
+        this.sender = sender;
+        this.completer = completer;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Buffer a frame for sending; never blocks
+     */
+    OfferResult offer(String frame) {
+        if (closed.get()) {
+            return OfferResult.CLOSED;
+        }
+        OfferResult result = OfferResult.QUEUED;
+        while (!buffer.offer(frame)) {
+            if (buffer.poll() != null) {
+                result = OfferResult.DROPPED_OLDEST;
+                if (dropsSinceLastSend.incrementAndGet() > maxDrops) {
+                    close();
+                    return OfferResult.DISCONNECTED_SLOW;
+                }
+            }
+        }
+        scheduleSend();
+        return result;
+    }
+
+    /**
+     * Nothing buffered or being sent, so a heartbeat would not delay real updates
+     */
+    boolean isIdle() {
+        return buffer.isEmpty() && !sending.get();
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Stop buffering and sending; never blocks
+     */
+    void close() {
+        close(completer);
+    }
+
+    private void close(Executor completion) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        buffer.clear();
+        onClose.accept(this);
+        try {
+            completion.execute(this::complete);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the container completes the open requests
+        }
+    }
+
+    private void complete() {
+        try {
+            emitter.complete();
+        } catch (RuntimeException e) {
+            // Already completed by the container
+        }
+    }
+
+    private void scheduleSend() {
+        // At most one sender task per subscriber, so frames go out in order
+        if (sending.compareAndSet(false, true)) {
+            try {
+                sender.execute(this::sendBuffered);
+            } catch (RejectedExecutionException e) {
+                // Shutting down. No sender is running, so no write is in progress and completing here never waits
+                sending.set(false);
+                close(Runnable::run);
+            }
+        }
+    }
+
+    private void sendBuffered() {
+        try {
+            String frame;
+            while (!closed.get() && (frame = buffer.poll()) != null) {
+                emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(frame, TEXT_PLAIN_UTF8)));
+                dropsSinceLastSend.set(0);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or emitter already completed
+            close();
+        } finally {
+            sending.set(false);
+        }
+        // A frame offered after the loop ended but before the flag was cleared would otherwise wait for the next offer
+        if (!closed.get() && !buffer.isEmpty()) {
+            scheduleSend();
+        }
+    }
+}
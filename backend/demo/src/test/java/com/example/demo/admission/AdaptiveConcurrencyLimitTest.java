@@ -0,0 +1,65 @@
+package com.example.demo.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // A zero window closes a window on every sample
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0, 2.0,
+            new SimpleMeterRegistry());
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        limit.release();
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyStaysNearTheNoLoadLatency() {
+        fillToLimit();
+        for (int i = 0; i < 20; i++) {
+            limit.recordLatency(10 * MILLIS);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesBeyondTheTolerance() {
+        limit.recordLatency(10 * MILLIS);
+        for (int i = 0; i < 50; i++) {
+            limit.recordLatency(100 * MILLIS);
+        }
+
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhileUnused() {
+        for (int i = 0; i < 20; i++) {
+            limit.recordLatency(10 * MILLIS);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    private void fillToLimit() {
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+    }
+}
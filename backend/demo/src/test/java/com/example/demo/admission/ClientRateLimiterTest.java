@@ -0,0 +1,50 @@
+package com.example.demo.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAdmitsABurstThenOneRequestPerInterval() {
+        TokenBucket bucket = new TokenBucket(0);
+        long interval = SECOND / 10;
+        long burstTolerance = 3 * interval;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0, interval, burstTolerance));
+        }
+        assertEquals(interval, bucket.tryAcquire(0, interval, burstTolerance));
+        assertEquals(0, bucket.tryAcquire(interval, interval, burstTolerance));
+        assertFalse(bucket.isFull(3 * interval));
+        assertTrue(bucket.isFull(4 * interval));
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2, 100);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void clientsBeyondCapacityShareTheOverflowBucket() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 2);
+        limiter.tryAcquire("10.0.0.1");
+        limiter.tryAcquire("10.0.0.2");
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.3"));
+        assertTrue(limiter.tryAcquire("10.0.0.4") > 0);
+        assertEquals(2, limiter.getTrackedClients());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing against two in-memory H2 databases standing in for the MySQL primary and read replica.
+ * Each database answers "which node am I", so a query shows where it was routed.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = node("primary");
+        DataSource replica = node("replica");
+        DataSource routing = ReadReplicaRoutingDataSource.readWriteSplitting(primary, replica);
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+    }
+
+    @Test
+    void workOutsideTransactionsUsesThePrimary() {
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void pinnedReadOnlyTransactionsUseThePrimary() {
+        assertEquals("primary", readOnly.execute(status ->
+                ReadReplicaRoutingDataSource.onPrimary(this::currentNode)));
+        // The pin only lasts for the supplied reads
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource node(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.controller;
+
+import com.example.demo.client.ExchangeRateClient;
+import com.example.demo.config.AppConfig;
+import com.example.demo.exception.GlobalExceptionHandler;
+import com.example.demo.service.CurrencyCode;
+import com.example.demo.service.ExchangeRateService;
+import com.example.demo.service.FeeCalculatorService;
+import com.example.demo.service.RateMatrix;
+import com.example.demo.service.TransferSimulationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request handling of the preview endpoints, with bean validation enabled as in the application,
+ * against a fixed JPY rate matrix and without a database.
+ */
+class TransferSimulationControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        FeeCalculatorService feeCalculatorService =
+                new FeeCalculatorService(100, "10000:100,50000:400,100000:700,unlimited:1000");
+        TransferSimulationService transferService = new TransferSimulationService(null, fixedRates(),
+                feeCalculatorService, null, null, null, null, null, null, new SimpleMeterRegistry());
+
+        TransferSimulationController controller = new TransferSimulationController(transferService,
+                feeCalculatorService, null, null, null, null, objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    @Test
+    void invalidBatchItemGetsAnErrorWithoutFailingTheOthers() throws Exception {
+        mockMvc.perform(post("/api/transfer/preview/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"input_mode": "JPY_INPUT", "send_amount": 50000},
+                                 {"input_mode": "JPY_INPUT", "send_amount": -5},
+                                 {"input_mode": "VND_INPUT", "receive_amount": 0}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].preview.send_amount").value(50000))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("Send amount must be positive"))
+                .andExpect(jsonPath("$[2].error").value("Receive amount must be positive"));
+    }
+
+    @Test
+    void singlePreviewStillRejectsAnInvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/transfer/preview")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"input_mode\": \"JPY_INPUT\", \"send_amount\": -5}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static ExchangeRateService fixedRates() {
+        RateMatrix matrix = RateMatrix.of(CurrencyCode.JPY, Map.of("VND", new BigDecimal("174.35")), Instant.now());
+        ExchangeRateClient offline = base -> {
+            throw new UnsupportedOperationException("The test never calls the exchange rate API");
+        };
+        return new ExchangeRateService(offline, null, new SimpleMeterRegistry(), "JPY", "JPY:VND", 5, 30_000) {
+            @Override
+            public RateMatrix getRateMatrix() {
+                return matrix;
+            }
+        };
+    }
+}
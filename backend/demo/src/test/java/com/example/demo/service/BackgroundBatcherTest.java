@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackgroundBatcherTest {
+
+    private final List<List<String>> flushed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch flushing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // The first flush holds the writer until the test releases it, like a slow INSERT
+    private void slowFirstFlush(List<String> batch) {
+        flushed.add(List.copyOf(batch));
+        flushing.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void fullQueueDropsTheOldestItem() throws InterruptedException {
+        BackgroundBatcher<String> batcher = new BackgroundBatcher<>("test-batcher", 2, 10, 1, this::slowFirstFlush);
+        List<String> dropped = new CopyOnWriteArrayList<>();
+        batcher.start();
+
+        batcher.offerDroppingOldest("a", dropped::add);
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        batcher.offerDroppingOldest("b", dropped::add);
+        batcher.offerDroppingOldest("c", dropped::add);
+        batcher.offerDroppingOldest("d", dropped::add);
+        release.countDown();
+
+        assertEquals(List.of(), batcher.stop(5_000));
+        assertEquals(List.of("b"), dropped);
+        assertEquals(List.of(List.of("a"), List.of("c", "d")), flushed);
+    }
+
+    @Test
+    void stopFlushesQueuedItemsAndRejectsNewOnes() throws InterruptedException {
+        BackgroundBatcher<String> batcher = new BackgroundBatcher<>("test-batcher", 10, 10, 50,
+                batch -> flushed.add(List.copyOf(batch)));
+        batcher.start();
+        assertTrue(batcher.offer("a", 0, TimeUnit.MILLISECONDS));
+        assertTrue(batcher.offer("b", 0, TimeUnit.MILLISECONDS));
+
+        assertEquals(List.of(), batcher.stop(5_000));
+
+        assertEquals(List.of("a", "b"), flushed.stream().flatMap(List::stream).toList());
+        assertThrows(RejectedExecutionException.class, () -> batcher.offer("c", 0, TimeUnit.MILLISECONDS));
+        assertThrows(RejectedExecutionException.class, () -> batcher.offerDroppingOldest("c", item -> { }));
+    }
+
+    @Test
+    void multiRowInsertRepeatsTheValuesRow() {
+        assertEquals("INSERT INTO t (a, b) VALUES (?, ?),(?, ?),(?, ?)",
+                BackgroundBatcher.multiRowInsert("INSERT INTO t (a, b) VALUES ", "(?, ?)", 3));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1_000, now::get);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertTrue(breaker.isClosed());
+    }
+
+    @Test
+    void letsOneProbeThroughOnceTheOpenDurationHasPassed() {
+        trip();
+        advanceMillis(999);
+        assertFalse(breaker.tryAcquire());
+
+        advanceMillis(1);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() {
+        trip();
+        advanceMillis(1_000);
+        breaker.tryAcquire();
+
+        breaker.onSuccess();
+        assertTrue(breaker.isClosed());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() {
+        trip();
+        advanceMillis(1_000);
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        advanceMillis(999);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    private void trip() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangeRateServiceTest {
+
+    private static final RateMatrix MATRIX =
+            RateMatrix.of(CurrencyCode.JPY, Map.of("VND", new BigDecimal("174.35")), Instant.now());
+
+    // Each upstream call takes the next response
+    private final Queue<Supplier<RateMatrix>> responses = new ArrayDeque<>();
+
+    // The circuit opens after one failure and allows a probe 1 ms later; no rate history is recorded
+    private final ExchangeRateService service = new ExchangeRateService(base -> responses.remove().get(), null,
+            new SimpleMeterRegistry(), "JPY", "JPY:VND", 1, 1);
+
+    @Test
+    void errorFromTheHalfOpenProbeReopensTheCircuit() throws InterruptedException {
+        responses.add(() -> {
+            throw new IllegalStateException("upstream down");
+        });
+        assertThrows(ServiceUnavailableException.class, service::getRateMatrix);
+
+        Thread.sleep(5);
+        responses.add(() -> {
+            throw new AssertionError("client bug");
+        });
+        assertThrows(AssertionError.class, service::getRateMatrix);
+
+        // The failed probe opened the circuit again, so the next one is let through once it has passed
+        Thread.sleep(5);
+        responses.add(() -> MATRIX);
+        assertEquals(MATRIX.getAsOf(), service.getRateMatrix().getAsOf());
+    }
+}
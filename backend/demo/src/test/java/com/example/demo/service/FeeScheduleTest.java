@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeeScheduleTest {
+
+    private final FeeSchedule schedule = FeeSchedule.parse(100, "10000:100,50000:400,100000:700,unlimited:1000");
+
+    @Test
+    void feeLookupAtTierBoundaries() {
+        assertEquals(100, schedule.feeFor(100));
+        assertEquals(100, schedule.feeFor(10_000));
+        assertEquals(400, schedule.feeFor(10_001));
+        assertEquals(400, schedule.feeFor(50_000));
+        assertEquals(700, schedule.feeFor(50_001));
+        assertEquals(700, schedule.feeFor(100_000));
+        assertEquals(1000, schedule.feeFor(100_001));
+        assertEquals(1000, schedule.feeFor(Long.MAX_VALUE));
+    }
+
+    @Test
+    void grossForNetMatchesTheIterativeSearchAroundEveryBoundary() {
+        for (long net : netAmountsAroundBoundaries(schedule)) {
+            assertEquals(iterativeGross(net), schedule.grossForNet(net), "net " + net);
+            assertEquals(smallestGross(schedule, net), schedule.grossForNet(net), "net " + net);
+        }
+    }
+
+    @Test
+    void grossForNetInTheMinimumFeeRegion() {
+        // The smallest transfer is the minimum amount itself, leaving 0 after the fee
+        assertEquals(100, schedule.grossForNet(0));
+        assertEquals(101, schedule.grossForNet(1));
+        assertEquals(iterativeGross(1), schedule.grossForNet(1));
+        assertThrows(IllegalArgumentException.class, () -> schedule.grossForNet(-1));
+    }
+
+    @Test
+    void cheaperTierWinsWhenTiersOverlapInNetTerms() {
+        // Gross 1000 nets 900 in the first tier; gross 1001 nets only 501 in the second
+        FeeSchedule overlapping = FeeSchedule.parse(100, "1000:100,unlimited:500");
+
+        for (long net : netAmountsAroundBoundaries(overlapping)) {
+            assertEquals(smallestGross(overlapping, net), overlapping.grossForNet(net), "net " + net);
+        }
+        assertEquals(1000, overlapping.grossForNet(900));
+        assertEquals(1401, overlapping.grossForNet(901));
+    }
+
+    /**
+     * The search the service used before the closed form: start from the fee of net + 100 and
+     * recompute the fee of net + fee until it stops changing
+     */
+    private long iterativeGross(long net) {
+        int fee = schedule.feeFor(checkMinimum(net + 100));
+        long gross = net + fee;
+        int newFee = schedule.feeFor(checkMinimum(gross));
+        while (newFee != fee) {
+            fee = newFee;
+            gross = net + fee;
+            newFee = schedule.feeFor(checkMinimum(gross));
+        }
+        return gross;
+    }
+
+    private long checkMinimum(long amount) {
+        if (amount < schedule.getMinAmount()) {
+            throw new IllegalArgumentException("Minimum transfer amount is ¥" + schedule.getMinAmount());
+        }
+        return amount;
+    }
+
+    /**
+     * Definition of the inverse: the smallest gross amount, at least the minimum, that leaves exactly net
+     */
+    private static long smallestGross(FeeSchedule fees, long net) {
+        int maxFee = fees.getTiers().get(fees.getTiers().size() - 1).fee();
+        for (long gross = Math.max(net, fees.getMinAmount()); gross <= net + maxFee; gross++) {
+            if (gross - fees.feeFor(gross) == net) {
+                return gross;
+            }
+        }
+        throw new AssertionError("No gross amount leaves " + net);
+    }
+
+    /**
+     * Net amounts at, just below and just above every tier's gross and net bounds
+     */
+    private static List<Long> netAmountsAroundBoundaries(FeeSchedule fees) {
+        List<Long> nets = new ArrayList<>();
+        for (FeeSchedule.Tier tier : fees.getTiers()) {
+            long upper = tier.isUnlimited() ? tier.minAmount() + 1_000_000 : tier.maxAmount();
+            for (long bound : new long[]{tier.minAmount(), upper, tier.minAmount() - tier.fee(), upper - tier.fee()}) {
+                for (long delta = -1; delta <= 1; delta++) {
+                    long net = bound + delta;
+                    if (net >= fees.getMinAmount() - fees.getTiers().get(0).fee()) {
+                        nets.add(net);
+                    }
+                }
+            }
+        }
+        return nets;
+    }
+}
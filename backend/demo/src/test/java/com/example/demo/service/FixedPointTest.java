@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Property tests: the fixed-point conversions must agree with the BigDecimal quote path
+ * they replaced, for random amounts and rates across the whole supported range.
+ */
+class FixedPointTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void multiplyDownMatchesBigDecimalRoundingDown() {
+        SplittableRandom random = new SplittableRandom(20260114L);
+        for (int i = 0; i < SAMPLES; i++) {
+            long amount = randomAmount(random);
+            BigDecimal rate = randomRate(random, RateSnapshot.MIN_SCALE);
+
+            assertConversion(amount, rate, RateSnapshot.MIN_SCALE, RoundingMode.DOWN);
+        }
+    }
+
+    @Test
+    void multiplyUpMatchesBigDecimalRoundingUp() {
+        SplittableRandom random = new SplittableRandom(20260115L);
+        for (int i = 0; i < SAMPLES; i++) {
+            long amount = randomAmount(random);
+            BigDecimal inverseRate = randomRate(random, RateSnapshot.MAX_SCALE);
+
+            assertConversion(amount, inverseRate, RateSnapshot.MAX_SCALE, RoundingMode.UP);
+        }
+    }
+
+    @Test
+    void snapshotRatesMatchBigDecimalQuotes() {
+        SplittableRandom random = new SplittableRandom(20260116L);
+        for (int i = 0; i < SAMPLES; i++) {
+            // Realistic pair rates: 0.0001 .. 100,000
+            BigDecimal upstreamRate = BigDecimal.valueOf(random.nextLong(1_000_000L, 1_000_000_000_000_000L), 10);
+            RateSnapshot snapshot = RateSnapshot.of(upstreamRate, Instant.EPOCH);
+            long amount = random.nextLong(0, 10_000_000_000L);
+
+            assertConversion(amount, snapshot.rate(), snapshot.rateScale(), RoundingMode.DOWN);
+            assertConversion(amount, snapshot.inverseRate(), snapshot.inverseScale(), RoundingMode.UP);
+        }
+    }
+
+    @Test
+    void exactProductsAreNotRoundedUp() {
+        // 100 JPY at 174.35 is exactly 17,435 VND
+        assertEquals(17_435L, FixedPoint.multiplyUp(100, 17_435_000_000L, 8));
+        assertEquals(17_435L, FixedPoint.multiplyDown(100, 17_435_000_000L, 8));
+        assertEquals(0L, FixedPoint.multiplyUp(0, 17_435_000_000L, 8));
+    }
+
+    @Test
+    void productsBeyond64BitsAreExact() {
+        long amount = Long.MAX_VALUE / 3;
+        long scaledRate = 250_000_000L; // 2.5 at scale 8
+
+        assertConversion(amount, new BigDecimal("2.50000000"), 8, RoundingMode.DOWN);
+        assertThrows(ArithmeticException.class, () -> FixedPoint.multiplyDown(amount * 2, scaledRate, 8));
+    }
+
+    @Test
+    void rejectsNegativeOperandsAndUnsupportedScales() {
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.multiplyDown(-1, 100, 2));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.multiplyDown(1, 100, FixedPoint.MAX_SCALE + 1));
+    }
+
+    private static void assertConversion(long amount, BigDecimal rate, int scale, RoundingMode roundingMode) {
+        BigDecimal expected = BigDecimal.valueOf(amount).multiply(rate).setScale(0, roundingMode);
+        long scaledRate = FixedPoint.toScaled(rate, scale);
+        Executable conversion = () -> {
+            long actual = roundingMode == RoundingMode.DOWN
+                    ? FixedPoint.multiplyDown(amount, scaledRate, scale)
+                    : FixedPoint.multiplyUp(amount, scaledRate, scale);
+            assertEquals(expected.longValueExact(), actual,
+                    () -> amount + " x " + rate.toPlainString() + " (" + roundingMode + ")");
+        };
+
+        if (expected.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            // Results that do not fit in a long must fail loudly rather than wrap
+            assertThrows(ArithmeticException.class, conversion);
+        } else {
+            assertDoesNotThrow(conversion);
+        }
+    }
+
+    /**
+     * Mix of realistic amounts and very large ones that force the 128-bit path
+     */
+    private static long randomAmount(SplittableRandom random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> random.nextLong(0, 1_000_000L);
+            case 1 -> random.nextLong(0, 100_000_000_000L);
+            default -> random.nextLong(0, 1_000_000_000_000_000L);
+        };
+    }
+
+    private static BigDecimal randomRate(SplittableRandom random, int scale) {
+        long unscaled = switch (random.nextInt(3)) {
+            case 0 -> random.nextLong(1, 1_000L);                 // tiny rates such as VND → JPY
+            case 1 -> random.nextLong(1, 100_000_000_000L);
+            default -> random.nextLong(1, 10_000_000_000_000L);
+        };
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final IdempotencyCache<String> cache = new IdempotencyCache<>(1_000, 2, now::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void retryReturnsTheStoredResult() {
+        assertEquals("first", cache.execute("key", "request", () -> load("first")));
+        assertEquals("first", cache.execute("key", "request", () -> load("second")));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void keyCannotBeReusedForAnotherRequest() {
+        cache.execute("key", "request", () -> load("first"));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.execute("key", "other", () -> load("second")));
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.execute("key", "request", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals("retried", cache.execute("key", "request", () -> load("retried")));
+    }
+
+    @Test
+    void errorFromTheLoaderDoesNotLeaveTheKeyInFlight() throws Exception {
+        assertThrows(AssertionError.class, () -> cache.execute("key", "request", () -> {
+            throw new AssertionError("loader broke");
+        }));
+
+        // An entry left in flight would block this retry forever
+        CompletableFuture<String> retry = CompletableFuture.supplyAsync(
+                () -> cache.execute("key", "request", () -> load("retried")));
+        assertEquals("retried", retry.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void expiredResultsAreLoadedAgain() {
+        cache.execute("key", "request", () -> load("first"));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+
+        assertEquals("second", cache.execute("key", "request", () -> load("second")));
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstCall() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.execute("key", "request", () -> {
+            loading.countDown();
+            await(release);
+            return load("first");
+        }));
+        loading.await();
+
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(
+                () -> cache.execute("key", "request", () -> load("duplicate")));
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("first", duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void resultsBeyondCapacityAreNotRetained() {
+        cache.execute("a", "request", () -> load("a"));
+        cache.execute("b", "request", () -> load("b"));
+        cache.execute("c", "request", () -> load("c"));
+
+        assertEquals(2, cache.size());
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
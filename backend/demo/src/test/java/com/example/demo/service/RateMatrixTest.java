@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateMatrixTest {
+
+    private static final Instant AS_OF = Instant.parse("2026-01-14T14:00:00Z");
+
+    private final RateMatrix matrix = RateMatrix.of(CurrencyCode.JPY, Map.of(
+            "VND", new BigDecimal("174.35"),
+            "USD", new BigDecimal("0.00666667"),
+            "PHP", new BigDecimal("0.38333333"),
+            "EUR", new BigDecimal("0.0061")), AS_OF);
+
+    @Test
+    void directRatesComeFromTheBaseTable() {
+        RateSnapshot jpyVnd = matrix.snapshot(CurrencyCode.JPY, CurrencyCode.VND);
+
+        assertEquals(0, new BigDecimal("174.35").compareTo(jpyVnd.rate()));
+        assertEquals(AS_OF, jpyVnd.asOf());
+    }
+
+    @Test
+    void crossRatesGoThroughTheBaseCurrency() {
+        RateSnapshot usdVnd = matrix.snapshot(CurrencyCode.USD, CurrencyCode.VND);
+
+        // 174.35 / 0.00666667 and 0.00666667 / 0.38333333, to twelve significant digits
+        assertEquals(new BigDecimal("26152.48692380"), usdVnd.rate());
+        assertEquals(new BigDecimal("0.0173913131947"), matrix.snapshot(CurrencyCode.PHP, CurrencyCode.USD).rate());
+    }
+
+    @Test
+    void inverseOfADirectRateKeepsItsSignificantDigits() {
+        // 1 / 174.35, where eight decimal places would keep only six significant digits
+        assertEquals(new BigDecimal("0.0057355893318"), matrix.snapshot(CurrencyCode.VND, CurrencyCode.JPY).rate());
+    }
+
+    @Test
+    void lookupsReturnThePrecomputedSnapshot() {
+        assertSame(matrix.snapshot(CurrencyCode.USD, CurrencyCode.VND), matrix.snapshot(CurrencyCode.USD, CurrencyCode.VND));
+    }
+
+    @Test
+    void missingCurrencyHasNoRate() {
+        assertFalse(matrix.hasRate(CurrencyCode.JPY, CurrencyCode.IDR));
+        assertTrue(matrix.hasRate(CurrencyCode.USD, CurrencyCode.VND));
+        assertThrows(IllegalStateException.class, () -> matrix.snapshot(CurrencyCode.IDR, CurrencyCode.VND));
+        assertThrows(IllegalArgumentException.class, () -> matrix.snapshot(CurrencyCode.VND, CurrencyCode.VND));
+    }
+
+    @Test
+    void withSnapshotReplacesOnlyThatPair() {
+        RateSnapshot recorded = matrix.snapshot(CurrencyCode.JPY, CurrencyCode.VND).withId(7);
+        RateMatrix updated = matrix.withSnapshot(CurrencyCode.JPY, CurrencyCode.VND, recorded);
+
+        assertEquals(7, updated.snapshot(CurrencyCode.JPY, CurrencyCode.VND).id());
+        assertNull(matrix.snapshot(CurrencyCode.JPY, CurrencyCode.VND).id());
+        assertSame(matrix.snapshot(CurrencyCode.JPY, CurrencyCode.PHP), updated.snapshot(CurrencyCode.JPY, CurrencyCode.PHP));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateSnapshotTest {
+
+    @Test
+    void upstreamRatesAreQuotedExactly() {
+        RateSnapshot snapshot = RateSnapshot.of(new BigDecimal("174.123456789"), Instant.EPOCH);
+
+        assertEquals(new BigDecimal("174.123456789"), snapshot.rate());
+        // 10,000 JPY at the received rate is 1,741,234.56789 VND, rounded down
+        assertEquals(1_741_234L, FixedPoint.multiplyDown(10_000, snapshot.scaledRate(), snapshot.rateScale()));
+    }
+
+    @Test
+    void ratesAreWrittenWithAtLeastEightDecimals() {
+        assertEquals("174.35000000", RateSnapshot.of(new BigDecimal("174.35"), Instant.EPOCH).rate().toPlainString());
+        assertEquals("174.35000000", RateSnapshot.round(new BigDecimal("174.35000000000000")).toPlainString());
+    }
+
+    @Test
+    void smallInverseRatesKeepTheirSignificantDigits() {
+        RateSnapshot snapshot = RateSnapshot.of(new BigDecimal("174.35"), Instant.EPOCH);
+
+        // 1 / 174.35 = 0.00573558933180...: twelve significant digits, where eight decimals kept six
+        assertEquals(new BigDecimal("0.0057355893318"), snapshot.inverseRate());
+        assertEquals(13, snapshot.inverseScale());
+    }
+
+    @Test
+    void excessPrecisionIsRoundedHalfUpToTwelveSignificantDigits() {
+        assertEquals(new BigDecimal("25123.45678900"), RateSnapshot.round(new BigDecimal("25123.456789049")));
+        assertEquals(new BigDecimal("25123.45678910"), RateSnapshot.round(new BigDecimal("25123.45678905")));
+        // Fourteen decimal places at most, even below twelve significant digits
+        assertEquals(new BigDecimal("0.00001234567890"), RateSnapshot.round(new BigDecimal("0.0000123456789012")));
+        assertThrows(ArithmeticException.class, () -> RateSnapshot.round(new BigDecimal("1E-15")));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicationLagGuardTest {
+
+    @Test
+    void clientReadsFromPrimaryRightAfterItsOwnWrite() {
+        ReplicationLagGuard guard = new ReplicationLagGuard(60_000);
+        guard.recordWrite("10.0.0.1");
+
+        assertTrue(guard.requiresPrimary("10.0.0.1"));
+        assertFalse(guard.requiresPrimary("10.0.0.2"));
+        assertFalse(guard.requiresPrimary(null));
+    }
+
+    @Test
+    void clientReturnsToReplicaOnceTheWindowHasPassed() throws InterruptedException {
+        ReplicationLagGuard guard = new ReplicationLagGuard(1);
+        guard.recordWrite("10.0.0.1");
+        Thread.sleep(5);
+
+        assertFalse(guard.requiresPrimary("10.0.0.1"));
+    }
+}
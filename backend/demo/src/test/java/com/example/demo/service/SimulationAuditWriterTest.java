@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationAuditWriterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 14, 14, 0);
+
+    private final CountDownLatch inserting = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Every insert fails; the first one only after the test releases it, like a database that hangs then errors
+    private final JdbcTemplate failingJdbc = new JdbcTemplate() {
+        @Override
+        public int update(PreparedStatementCreator psc) {
+            inserting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new DataAccessResourceFailureException("database unavailable");
+        }
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void droppedCounterCountsOverflowAndFailedInserts() throws InterruptedException {
+        SimulationAuditWriter writer = new SimulationAuditWriter(failingJdbc, meterRegistry, 2, 10, 1);
+        writer.start();
+
+        writer.record(1, CREATED_AT, "10.0.0.1", "agent");
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+        writer.record(2, CREATED_AT, "10.0.0.1", "agent");
+        writer.record(3, CREATED_AT, "10.0.0.1", "agent");
+        writer.record(4, CREATED_AT, "10.0.0.1", "agent");
+        assertEquals(1.0, dropped(), "record 2 is pushed out of the full queue");
+
+        release.countDown();
+        writer.stop();
+
+        // Plus record 1 and records 3 and 4, whose inserts failed
+        assertEquals(4.0, dropped());
+    }
+
+    private double dropped() {
+        return meterRegistry.get("simulation.audit.dropped").counter().count();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SimulationRequest;
+import com.example.demo.dto.SimulationResponse;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.OutcomeUnknownException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Claim handling against an in-memory H2 database in MySQL mode standing in for simulation_idempotency.
+ * Each call gets a fresh service, so retries reach the table instead of the in-memory cache.
+ */
+class SimulationIdempotencyServiceTest {
+
+    private static final String KEY = "retry-key";
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final SimulationRequest request = new SimulationRequest();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE simulation_idempotency (idempotency_key VARCHAR(64) PRIMARY KEY, " +
+                "request_fingerprint VARCHAR(64) NOT NULL, simulation_id BIGINT NULL, created_at DATETIME NOT NULL)");
+
+        request.setInputMode(SimulationRequest.InputMode.JPY_INPUT);
+        request.setSourceCurrency(CurrencyCode.JPY);
+        request.setTargetCurrency(CurrencyCode.VND);
+        request.setSendAmount(50_000L);
+    }
+
+    @Test
+    void completedClaimReplaysTheSavedSimulation() {
+        execute(claim -> save(claim, 42));
+
+        SimulationResponse replayed = execute(claim -> {
+            throw new AssertionError("a completed key must not create again");
+        });
+
+        assertEquals(42L, replayed.getId());
+    }
+
+    @Test
+    void failedCreateReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> execute(claim -> {
+            throw new IllegalStateException("insert failed");
+        }));
+
+        assertEquals(7L, execute(claim -> save(claim, 7)).getId());
+    }
+
+    @Test
+    void unknownOutcomeKeepsTheClaim() {
+        assertThrows(OutcomeUnknownException.class, () -> execute(claim -> {
+            throw new OutcomeUnknownException("commit timed out", null);
+        }));
+
+        // The first insert may still commit, so a retry must not create a second simulation
+        assertThrows(ConflictException.class, () -> execute(claim -> save(claim, 8)));
+        assertEquals(1, rows());
+    }
+
+    @Test
+    void takenOverClaimCannotComplete() {
+        assertThrows(ConflictException.class, () -> execute(claim -> {
+            // Another request takes the key over while this one is still saving
+            jdbcTemplate.update("UPDATE simulation_idempotency SET created_at = DATEADD(MINUTE, 1, created_at)");
+            return save(claim, 9);
+        }));
+
+        // Neither completed nor released: the claim belongs to the request that took it over
+        assertEquals(1, rows());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM simulation_idempotency WHERE simulation_id IS NOT NULL", Integer.class));
+    }
+
+    private SimulationResponse execute(Function<SimulationIdempotencyService.Claim, SimulationResponse> create) {
+        SimulationIdempotencyService service = new SimulationIdempotencyService(jdbcTemplate, 60_000, 100, 60_000);
+        return service.execute(KEY, request, create, id -> response(id));
+    }
+
+    /**
+     * What the save paths do: lock the claim, insert, complete the claim, all in one transaction
+     */
+    private SimulationResponse save(SimulationIdempotencyService.Claim claim, long simulationId) {
+        SimulationIdempotencyService service = new SimulationIdempotencyService(jdbcTemplate, 60_000, 100, 60_000);
+        return transactionTemplate.execute(status -> {
+            service.lockClaim(claim);
+            service.complete(List.of(claim), List.of(simulationId));
+            return response(simulationId);
+        });
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM simulation_idempotency", Integer.class);
+    }
+
+    private static SimulationResponse response(long id) {
+        SimulationResponse response = new SimulationResponse();
+        response.setId(id);
+        return response;
+    }
+}
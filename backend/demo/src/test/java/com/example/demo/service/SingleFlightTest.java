@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void waitersShareTheLoadedValue() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = start(() -> singleFlight.execute("key", () -> {
+            loading.countDown();
+            await(release);
+            return "value";
+        }));
+        loading.await();
+        CompletableFuture<String> waiter = startWaiter(() -> singleFlight.execute("key", () -> "second load"));
+        release.countDown();
+
+        assertEquals("value", first.get(5, TimeUnit.SECONDS));
+        assertEquals("value", waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void errorsReachWaitersInsteadOfLeavingThemBlocked() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = start(() -> singleFlight.execute("key", () -> {
+            loading.countDown();
+            await(release);
+            throw new StackOverflowError();
+        }));
+        loading.await();
+        CompletableFuture<String> waiter = startWaiter(() -> singleFlight.execute("key", () -> "second load"));
+        release.countDown();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+        failure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+    }
+
+    private static CompletableFuture<String> start(Supplier<String> call) {
+        return startThread(call).result();
+    }
+
+    /**
+     * Start a call and return once its thread is parked, i.e. waiting on the call in flight
+     */
+    private static CompletableFuture<String> startWaiter(Supplier<String> call) throws InterruptedException {
+        Started started = startThread(call);
+        while (started.thread().getState() != Thread.State.WAITING && !started.result().isDone()) {
+            Thread.sleep(1);
+        }
+        return started.result();
+    }
+
+    private static Started startThread(Supplier<String> call) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        return new Started(thread, result);
+    }
+
+    private record Started(Thread thread, CompletableFuture<String> result) {
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateStreamSubscriberTest {
+
+    // Sender tasks only run when the test says so, like a connection that is not being written to
+    private final Queue<Runnable> pendingSends = new ArrayDeque<>();
+    private final Queue<Runnable> pendingCompletions = new ArrayDeque<>();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final AtomicInteger closeCalls = new AtomicInteger();
+    private final RateStreamSubscriber subscriber = new RateStreamSubscriber(emitter, 2, pendingSends::add,
+            pendingCompletions::add, closed -> closeCalls.incrementAndGet());
+
+    @Test
+    void sendsBufferedFramesInOrder() {
+        subscriber.offer("a");
+        subscriber.offer("b");
+        assertFalse(subscriber.isIdle());
+
+        runPendingSends();
+
+        assertEquals(List.of("a", "b"), emitter.sent);
+        assertTrue(subscriber.isIdle());
+    }
+
+    @Test
+    void fullBufferDropsTheOldestFrame() {
+        subscriber.offer("a");
+        subscriber.offer("b");
+
+        assertEquals(RateStreamSubscriber.OfferResult.DROPPED_OLDEST, subscriber.offer("c"));
+        runPendingSends();
+
+        assertEquals(List.of("b", "c"), emitter.sent);
+    }
+
+    @Test
+    void stuckSubscriberIsDisconnected() {
+        subscriber.offer("a");
+        subscriber.offer("b");
+        subscriber.offer("c");
+        subscriber.offer("d");
+
+        assertEquals(RateStreamSubscriber.OfferResult.DISCONNECTED_SLOW, subscriber.offer("e"));
+        assertTrue(subscriber.isClosed());
+        assertEquals(1, closeCalls.get());
+        assertEquals(RateStreamSubscriber.OfferResult.CLOSED, subscriber.offer("f"));
+    }
+
+    @Test
+    void disconnectCompletesTheEmitterOffTheOfferingThread() {
+        for (String frame : List.of("a", "b", "c", "d", "e")) {
+            subscriber.offer(frame);
+        }
+
+        // Completing waits for the stuck write, so the offering thread only hands it off
+        assertEquals(0, emitter.completions);
+        assertEquals(1, pendingCompletions.size());
+        pendingCompletions.poll().run();
+        assertEquals(1, emitter.completions);
+    }
+
+    @Test
+    void sendingResetsTheDropCount() {
+        subscriber.offer("a");
+        subscriber.offer("b");
+        subscriber.offer("c");
+        subscriber.offer("d");
+        runPendingSends();
+
+        subscriber.offer("e");
+        subscriber.offer("f");
+        assertEquals(RateStreamSubscriber.OfferResult.DROPPED_OLDEST, subscriber.offer("g"));
+        assertFalse(subscriber.isClosed());
+    }
+
+    @Test
+    void failedSendClosesTheSubscriber() {
+        emitter.fail = true;
+        subscriber.offer("a");
+        runPendingSends();
+
+        assertTrue(subscriber.isClosed());
+        assertEquals(1, closeCalls.get());
+    }
+
+    @Test
+    void rejectedSendClosesAndCompletes() {
+        RateStreamSubscriber shutDown = new RateStreamSubscriber(emitter, 2, task -> {
+            throw new RejectedExecutionException("sender is shut down");
+        }, pendingCompletions::add, closed -> closeCalls.incrementAndGet());
+
+        assertEquals(RateStreamSubscriber.OfferResult.QUEUED, shutDown.offer("a"));
+
+        assertTrue(shutDown.isClosed());
+        assertEquals(1, closeCalls.get());
+        assertEquals(1, emitter.completions);
+    }
+
+    private void runPendingSends() {
+        Runnable send;
+        while ((send = pendingSends.poll()) != null) {
+            send.run();
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new ArrayList<>();
+        boolean fail;
+        int completions;
+
+        @Override
+        public void complete() {
+            completions++;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            items.forEach(item -> sent.add((String) item.getData()));
+        }
+    }
+}
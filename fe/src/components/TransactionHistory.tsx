@@ -87,19 +87,19 @@ export const TransactionHistory = ({ transactions }: TransactionHistoryProps) =>
                 <div className='flex justify-between'>
                   <span className='text-sm text-gray-600'>Amount Sent:</span>
                   <span className='text-sm font-semibold text-gray-800'>
-                    {formatCurrency(transaction.send_amount_jpy, 'JPY')}
+                    {formatCurrency(transaction.send_amount, 'JPY')}
                   </span>
                 </div>
                 <div className='flex justify-between'>
                   <span className='text-sm text-gray-600'>Transfer Fee:</span>
                   <span className='text-sm font-semibold text-orange-600'>
-                    {formatCurrency(transaction.fee_jpy, 'JPY')}
+                    {formatCurrency(transaction.fee, 'JPY')}
                   </span>
                 </div>
                 <div className='flex justify-between pt-2 border-t'>
                   <span className='text-sm font-semibold text-gray-800'>Total Cost:</span>
                   <span className='text-sm font-bold text-blue-600'>
-                    {formatCurrency(transaction.send_amount_jpy + transaction.fee_jpy, 'JPY')}
+                    {formatCurrency(transaction.send_amount + transaction.fee, 'JPY')}
                   </span>
                 </div>
               </div>
@@ -108,13 +108,13 @@ export const TransactionHistory = ({ transactions }: TransactionHistoryProps) =>
                 <div className='flex justify-between'>
                   <span className='text-sm text-gray-600'>Amount Received:</span>
                   <span className='text-sm font-semibold text-green-600'>
-                    {formatCurrency(transaction.receive_amount_vnd, 'VND')}
+                    {formatCurrency(transaction.receive_amount, 'VND')}
                   </span>
                 </div>
                 <div className='flex justify-between'>
                   <span className='text-sm text-gray-600'>Exchange Rate:</span>
                   <span className='text-sm font-semibold text-gray-800'>
-                    1 JPY = {formatNumber(transaction.rate_jpy_to_vnd)} VND
+                    1 JPY = {formatNumber(transaction.rate)} VND
                   </span>
                 </div>
               </div>
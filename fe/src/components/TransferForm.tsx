@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react'
+import { useState, useEffect, useRef } from 'react'
 import type { Transaction, InputMode, TransferPreviewResponse } from '../types'
 import * as api from '../services/api'
 
@@ -24,9 +24,13 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
   const [calculating, setCalculating] = useState<boolean>(false)
   const [error, setError] = useState<string>('')
   const [activeInput, setActiveInput] = useState<InputMode>('JPY_INPUT')
+  // Kept across failed submits of the same amount, so a retry cannot save the transfer twice
+  const idempotencyKey = useRef<string | null>(null)
 
   useEffect(() => {
     fetchExchangeRate()
+    // Later rate changes are pushed by the server
+    return api.subscribeExchangeRate((update) => setExchangeRate(update.rate))
   }, [])
 
   const fetchExchangeRate = async () => {
@@ -50,7 +54,7 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
 
       const request = {
         input_mode: inputMode,
-        ...(inputMode === 'JPY_INPUT' ? { send_amount_jpy: jpyValue } : { receive_amount_vnd: vndValue })
+        ...(inputMode === 'JPY_INPUT' ? { send_amount: jpyValue } : { receive_amount: vndValue })
       }
 
       const previewData = await api.previewTransfer(request)
@@ -58,9 +62,9 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
 
       // Update the other field based on preview
       if (inputMode === 'JPY_INPUT') {
-        setVndAmount(previewData.receive_amount_vnd.toString())
+        setVndAmount(previewData.receive_amount.toString())
       } else {
-        setJpyAmount(previewData.send_amount_jpy.toString())
+        setJpyAmount(previewData.send_amount.toString())
       }
       // eslint-disable-next-line @typescript-eslint/no-explicit-any
     } catch (err: any) {
@@ -77,6 +81,7 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
     setActiveInput('JPY_INPUT')
     setVndAmount('')
     setPreview(null)
+    idempotencyKey.current = null
   }
 
   const handleVNDChange = (value: string) => {
@@ -85,6 +90,7 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
     setActiveInput('VND_INPUT')
     setJpyAmount('')
     setPreview(null)
+    idempotencyKey.current = null
   }
 
   const handlePreview = async () => {
@@ -116,11 +122,13 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
       const request = {
         input_mode: activeInput,
         ...(activeInput === 'JPY_INPUT'
-          ? { send_amount_jpy: parseFloat(jpyAmount) }
-          : { receive_amount_vnd: parseFloat(vndAmount) })
+          ? { send_amount: parseFloat(jpyAmount) }
+          : { receive_amount: parseFloat(vndAmount) })
       }
 
-      const transaction = await api.simulateTransfer(request)
+      const key = (idempotencyKey.current ??= crypto.randomUUID())
+      const transaction = await api.simulateTransfer(request, key)
+      idempotencyKey.current = null
       onTransactionComplete(transaction)
 
       // Reset form
@@ -219,23 +227,29 @@ export const TransferForm = ({ onTransactionComplete }: TransferFormProps) => {
             <h3 className='font-semibold text-gray-800 mb-3'>Summary</h3>
             <div className='flex justify-between text-sm'>
               <span className='text-gray-600'>Transfer Amount:</span>
-              <span className='font-medium'>{formatCurrency(preview.send_amount_jpy, 'JPY')}</span>
+              <span className='font-medium'>{formatCurrency(preview.send_amount, 'JPY')}</span>
             </div>
             <div className='flex justify-between text-sm'>
               <span className='text-gray-600'>Transfer Fee:</span>
-              <span className='font-medium'>{formatCurrency(preview.fee_jpy, 'JPY')}</span>
+              <span className='font-medium'>{formatCurrency(preview.fee, 'JPY')}</span>
             </div>
             <div className='border-t pt-2 flex justify-between font-semibold'>
               <span className='text-gray-800'>Total Cost:</span>
-              <span className='text-blue-600'>{formatCurrency(preview.send_amount_jpy + preview.fee_jpy, 'JPY')}</span>
+              <span className='text-blue-600'>{formatCurrency(preview.send_amount + preview.fee, 'JPY')}</span>
             </div>
             <div className='border-t pt-2 flex justify-between font-semibold'>
               <span className='text-gray-800'>Recipient Gets:</span>
-              <span className='text-green-600'>{formatCurrency(preview.receive_amount_vnd, 'VND')}</span>
+              <span className='text-green-600'>{formatCurrency(preview.receive_amount, 'VND')}</span>
             </div>
             <div className='text-xs text-gray-500 mt-2'>
-              Exchange Rate: 1 JPY = {preview.rate_jpy_to_vnd.toFixed(4)} VND
+              Exchange Rate: 1 JPY = {preview.rate.toFixed(4)} VND
             </div>
+            {preview.stale && (
+              <div className='text-xs text-amber-600 mt-1'>
+                Live rates are temporarily unavailable; this quote uses the rate from{' '}
+                {new Date(preview.rate_as_of).toLocaleTimeString()}.
+              </div>
+            )}
           </div>
         )}
 
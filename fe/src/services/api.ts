@@ -3,7 +3,9 @@ import type {
   TransferRequest,
   TransferPreviewResponse,
   Transaction,
+  TransactionPage,
   ExchangeRateResponse,
+  ExchangeRateUpdate,
   FeeStructureResponse,
   FeeCalculationResponse
 } from '../types'
@@ -24,17 +26,32 @@ export const previewTransfer = async (request: TransferRequest): Promise<Transfe
 }
 
 // 2. Create transfer simulation (save to history)
-export const simulateTransfer = async (request: TransferRequest): Promise<Transaction> => {
-  const response = await api.post<Transaction>('/simulate', request)
+// Retrying with the same idempotency key returns the first result instead of saving a duplicate,
+// so the caller keeps one key per submit and passes it again on retry
+export const simulateTransfer = async (
+  request: TransferRequest,
+  idempotencyKey: string
+): Promise<Transaction> => {
+  const response = await api.post<Transaction>('/simulate', request, {
+    headers: { 'Idempotency-Key': idempotencyKey }
+  })
   return response.data
 }
 
-// 3. Get all transaction history
-export const getTransactionHistory = async (): Promise<Transaction[]> => {
-  const response = await api.get<Transaction[]>('/history')
+// 3. Get one page of transaction history (newest first)
+export const getTransactionHistoryPage = async (cursor?: string, size = 20): Promise<TransactionPage> => {
+  const response = await api.get<TransactionPage>('/history', {
+    params: { cursor, size }
+  })
   return response.data
 }
 
+// 3b. Get the latest transactions
+export const getTransactionHistory = async (): Promise<Transaction[]> => {
+  const page = await getTransactionHistoryPage()
+  return page.items
+}
+
 // 4. Get single transaction by ID
 export const getTransactionById = async (id: number): Promise<Transaction> => {
   const response = await api.get<Transaction>(`/history/${id}`)
@@ -47,6 +64,17 @@ export const getExchangeRate = async (): Promise<ExchangeRateResponse> => {
   return response.data
 }
 
+// 5a. Subscribe to live exchange rate updates (Server-Sent Events) instead of polling.
+// The first event carries the current rate; the browser reconnects on its own if the stream drops.
+// Returns a function that closes the stream.
+export const subscribeExchangeRate = (onUpdate: (update: ExchangeRateUpdate) => void): (() => void) => {
+  const source = new EventSource(`${API_BASE_URL}/exchange-rate/stream`)
+  source.addEventListener('rate', (event) => {
+    onUpdate(JSON.parse((event as MessageEvent<string>).data) as ExchangeRateUpdate)
+  })
+  return () => source.close()
+}
+
 // 6. Get fee structure
 export const getFeeStructure = async (): Promise<FeeStructureResponse> => {
   const response = await api.get<FeeStructureResponse>('/fee-structure')
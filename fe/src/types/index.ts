@@ -3,29 +3,42 @@ export type InputMode = 'JPY_INPUT' | 'VND_INPUT'
 
 export interface TransferRequest {
   input_mode: InputMode
-  send_amount_jpy?: number
-  receive_amount_vnd?: number
+  source_currency?: string
+  target_currency?: string
+  send_amount?: number
+  receive_amount?: number
 }
 
 // Response types matching backend API
 export interface TransferPreviewResponse {
-  send_amount_jpy: number
-  receive_amount_vnd: number
-  fee_jpy: number
-  rate_jpy_to_vnd: number
-  net_amount_jpy: number
+  source_currency: string
+  target_currency: string
+  send_amount: number
+  receive_amount: number
+  fee: number
+  rate: number
+  net_amount: number
+  rate_as_of: string
+  stale: boolean
 }
 
 export interface Transaction {
   id: number
   created_at: string
-  send_amount_jpy: number
-  receive_amount_vnd: number
-  fee_jpy: number
-  rate_jpy_to_vnd: number
+  source_currency: string
+  target_currency: string
+  send_amount: number
+  receive_amount: number
+  fee: number
+  rate: number
   input_mode: InputMode
 }
 
+export interface TransactionPage {
+  items: Transaction[]
+  next_cursor: string | null
+}
+
 export interface ExchangeRateResponse {
   result: string
   // eslint-disable-next-line @typescript-eslint/no-explicit-any
@@ -36,6 +49,15 @@ export interface ExchangeRateResponse {
   description: string
 }
 
+// Event of GET /exchange-rate/stream, pushed whenever the rate changes
+export interface ExchangeRateUpdate {
+  base: string
+  target: string
+  rate: number
+  as_of: string
+  description: string
+}
+
 export interface FeeTier {
   min_amount: number
   max_amount: number | string